@@ -0,0 +1,150 @@
+package ccetl.flashlight.jfr;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.dispatcher.DispatchMonitor;
+import ccetl.flashlight.dispatcher.IEventSystem;
+import ccetl.flashlight.listener.Listener;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Emits Java Flight Recorder events for the posts and slow listener invocations of event systems.
+ * <p>
+ * Both events are disabled by default and get enabled through the recording settings, e.g. with the
+ * {@code flashlight.jfc} next to this class: {@code -XX:StartFlightRecording:settings=default,flashlight.jfc}.
+ * <ul>
+ *     <li>{@code ccetl.flashlight.Post}: every post with its event class, number of listeners, cancellation status
+ *     and duration.</li>
+ *     <li>{@code ccetl.flashlight.Listener}: listener invocations taking longer than the threshold, 1 ms by
+ *     default.</li>
+ * </ul>
+ * An installed event system only gets a monitor while a running recording enables one of the events, so it pays
+ * nothing otherwise. The settings are read whenever a recording starts or stops; changing the settings of a running
+ * recording takes effect with the next such change.
+ */
+public final class FlightRecorderMonitor implements DispatchMonitor {
+
+    private static final Set<IEventSystem> EVENT_SYSTEMS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static boolean listening;
+
+    private final boolean posts;
+    private final boolean listeners;
+
+    private FlightRecorderMonitor(boolean posts, boolean listeners) {
+        this.posts = posts;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Emits the events of the event system while a recording enables them. The event system is held weakly.
+     *
+     * @param eventSystem the event system to monitor; replaces its current monitor
+     */
+    public static void install(IEventSystem eventSystem) {
+        if (!FlightRecorder.isAvailable()) {
+            return;
+        }
+
+        synchronized (EVENT_SYSTEMS) {
+            if (!listening) {
+                FlightRecorder.addListener(new FlightRecorderListener() {
+                    @Override
+                    public void recordingStateChanged(Recording recording) {
+                        update();
+                    }
+                });
+                listening = true;
+            }
+
+            EVENT_SYSTEMS.add(eventSystem);
+            eventSystem.setMonitor(current());
+        }
+    }
+
+    /**
+     * Stops emitting the events of the event system and removes its monitor.
+     */
+    public static void uninstall(IEventSystem eventSystem) {
+        synchronized (EVENT_SYSTEMS) {
+            if (EVENT_SYSTEMS.remove(eventSystem)) {
+                eventSystem.setMonitor(null);
+            }
+        }
+    }
+
+    private static void update() {
+        synchronized (EVENT_SYSTEMS) {
+            DispatchMonitor monitor = current();
+            for (IEventSystem eventSystem : EVENT_SYSTEMS) {
+                eventSystem.setMonitor(monitor);
+            }
+        }
+    }
+
+    @Nullable
+    private static DispatchMonitor current() {
+        boolean posts = EventType.getEventType(PostEvent.class).isEnabled();
+        boolean listeners = EventType.getEventType(ListenerEvent.class).isEnabled();
+        return posts || listeners ? new FlightRecorderMonitor(posts, listeners) : null;
+    }
+
+    @Nullable
+    @Override
+    public Object postStarted(Object event) {
+        if (!posts) {
+            return null;
+        }
+
+        PostEvent postEvent = new PostEvent();
+        postEvent.begin();
+        return postEvent;
+    }
+
+    @Override
+    public void postFinished(@Nullable Object token, Object event, int listeners, boolean canceled) {
+        if (token == null) {
+            return;
+        }
+
+        PostEvent postEvent = (PostEvent) token;
+        postEvent.end();
+        if (postEvent.shouldCommit()) {
+            postEvent.eventClass = event.getClass();
+            postEvent.listeners = listeners;
+            postEvent.canceled = canceled;
+            postEvent.commit();
+        }
+    }
+
+    @Override
+    public boolean monitorsListeners() {
+        return listeners;
+    }
+
+    @Override
+    public Object listenerStarted(Listener<?> listener, Object event) {
+        ListenerEvent listenerEvent = new ListenerEvent();
+        listenerEvent.begin();
+        return listenerEvent;
+    }
+
+    @Override
+    public void listenerFinished(@Nullable Object token, Listener<?> listener, Object event) {
+        ListenerEvent listenerEvent = (ListenerEvent) token;
+        listenerEvent.end();
+        if (listenerEvent.shouldCommit()) {
+            listenerEvent.eventClass = event.getClass();
+            listenerEvent.listener = listener.toString();
+            listenerEvent.listenerClass = DispatchMonitor.ownerOf(listener);
+            listenerEvent.priority = listener.getPriority();
+            listenerEvent.commit();
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package ccetl.flashlight.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The invocation of one listener, only recorded if it took longer than the threshold.
+ */
+@Name(ListenerEvent.NAME)
+@Label("Flashlight Listener")
+@Category("Flashlight")
+@Description("A listener invocation taking longer than the threshold")
+@Enabled(false)
+@StackTrace(false)
+@Threshold("1 ms")
+final class ListenerEvent extends Event {
+
+    static final String NAME = "ccetl.flashlight.Listener";
+
+    @Label("Event Class")
+    Class<?> eventClass;
+
+    @Label("Listener")
+    String listener;
+
+    @Label("Listener Class")
+    @Description("The class providing the listener, e.g. the one declaring an annotated method")
+    Class<?> listenerClass;
+
+    @Label("Priority")
+    byte priority;
+
+}
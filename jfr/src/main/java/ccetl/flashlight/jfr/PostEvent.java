@@ -0,0 +1,34 @@
+package ccetl.flashlight.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A post to an event system, from looking up the listeners until the last one returned.
+ */
+@Name(PostEvent.NAME)
+@Label("Flashlight Post")
+@Category("Flashlight")
+@Description("An event posted to an event system")
+@Enabled(false)
+@StackTrace(false)
+final class PostEvent extends Event {
+
+    static final String NAME = "ccetl.flashlight.Post";
+
+    @Label("Event Class")
+    Class<?> eventClass;
+
+    @Label("Listeners")
+    @Description("The number of listeners the event was posted to, including filtered ones")
+    int listeners;
+
+    @Label("Canceled")
+    boolean canceled;
+
+}
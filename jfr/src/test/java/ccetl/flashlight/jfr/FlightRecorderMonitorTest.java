@@ -0,0 +1,90 @@
+package ccetl.flashlight.jfr;
+
+import ccetl.flashlight.annotation.EventListener;
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.event.Cancelable;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderMonitorTest {
+
+    private EventSystem eventSystem;
+
+    static class TestEvent extends Cancelable {
+    }
+
+    static class Provider {
+        @EventListener
+        public void cancel(TestEvent event) {
+            event.cancel();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        eventSystem = new EventSystem();
+        eventSystem.register(new Provider());
+        FlightRecorderMonitor.install(eventSystem);
+    }
+
+    @AfterEach
+    void tearDown() {
+        FlightRecorderMonitor.uninstall(eventSystem);
+        eventSystem.shutDown();
+    }
+
+    @Test
+    void recordsPostsAndListeners() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(PostEvent.NAME);
+            recording.enable(ListenerEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            assertTrue(eventSystem.post(new TestEvent()));
+            recording.stop();
+
+            Path file = Files.createTempFile("flashlight", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        List<RecordedEvent> posts = select(events, PostEvent.NAME);
+        assertEquals(1, posts.size());
+        RecordedEvent post = posts.get(0);
+        assertEquals(TestEvent.class.getName(), post.<RecordedClass>getValue("eventClass").getName());
+        assertEquals(1, post.getInt("listeners"));
+        assertTrue(post.getBoolean("canceled"));
+
+        List<RecordedEvent> listeners = select(events, ListenerEvent.NAME);
+        assertEquals(1, listeners.size());
+        RecordedEvent listener = listeners.get(0);
+        assertEquals(Provider.class.getName(), listener.<RecordedClass>getValue("listenerClass").getName());
+        assertEquals(Provider.class.getName() + "#cancel", listener.getString("listener"));
+    }
+
+    private static List<RecordedEvent> select(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,219 @@
+package ccetl.flashlight.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code ListenerRegistrar} for every class declaring {@code @EventListener} methods, so the event system
+ * can register them without reflection.
+ * <p>
+ * Classes whose listeners can't be reached from their package, like private nested classes, are skipped; the event
+ * system falls back to reflection for them.
+ */
+@SupportedAnnotationTypes(ListenerProcessor.EVENT_LISTENER)
+public class ListenerProcessor extends AbstractProcessor {
+
+    static final String EVENT_LISTENER = "ccetl.flashlight.annotation.EventListener";
+    private static final String LISTENER_PRIORITY = "ccetl.flashlight.annotation.ListenerPriority";
+    private static final String EVENT_TYPE = "ccetl.flashlight.annotation.EventType";
+    private static final String REGISTRAR = "ccetl.flashlight.dispatcher.ListenerRegistrar";
+    private static final String SUFFIX = "$$FlashlightRegistrar";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD && element.getEnclosingElement().getKind() == ElementKind.CLASS) {
+                    types.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+
+        for (TypeElement type : types) {
+            List<ListenerMethod> methods = collect(type);
+            if (methods != null && !methods.isEmpty()) {
+                write(type, methods);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the listener methods of the type or null if a registrar can't reach all of them
+     */
+    private List<ListenerMethod> collect(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        if (!isReachable(type, packageElement)) {
+            return null;
+        }
+
+        List<ListenerMethod> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (find(method, EVENT_LISTENER) == null || !method.getModifiers().contains(Modifier.PUBLIC) || method.getParameters().size() != 1) {
+                continue;
+            }
+
+            TypeMirror eventClass = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+            TypeMirror typeFilter = typeFilter(method);
+            if (!isReachable(eventClass, packageElement) || typeFilter != null && !isReachable(typeFilter, packageElement)
+                    || !isReachable((TypeElement) method.getEnclosingElement(), packageElement)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Listener can't be registered without reflection because a type isn't accessible", method);
+                return null;
+            }
+
+            methods.add(new ListenerMethod(method, eventClass, priority(method), typeFilter, ignoreCanceled(method)));
+        }
+        return methods;
+    }
+
+    private void write(TypeElement type, List<ListenerMethod> methods) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String provider = type.getQualifiedName().toString();
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                    packageName.isEmpty() ? simpleName : packageName + "." + simpleName, type);
+            try (Writer writer = file.openWriter()) {
+                if (!packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * Generated by " + ListenerProcessor.class.getName() + ", do not edit.\n */\n");
+                writer.write("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+                writer.write("public final class " + simpleName + " implements " + REGISTRAR + "<" + provider + "> {\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public void collect(" + provider + " provider, " + REGISTRAR + ".Collector collector) {\n");
+                for (ListenerMethod method : methods) {
+                    writer.write("        collector.collect(provider, " + method.eventClass + ".class, \"" + method.name + "\", (byte) "
+                            + method.priority + ", " + (method.typeFilter == null ? "null" : method.typeFilter + ".class") + ", "
+                            + method.ignoreCanceled + ", " + method.invoker(provider) + ");\n");
+                }
+                writer.write("    }\n\n}\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Couldn't write the listener registrar: " + e.getMessage(), type);
+        }
+    }
+
+    private byte priority(ExecutableElement method) {
+        AnnotationValue value = value(find(method, LISTENER_PRIORITY), "priority");
+        return value == null ? 0 : ((Number) value.getValue()).byteValue();
+    }
+
+    private boolean ignoreCanceled(ExecutableElement method) {
+        AnnotationValue value = value(find(method, EVENT_LISTENER), "ignoreCanceled");
+        return value != null && (Boolean) value.getValue();
+    }
+
+    private TypeMirror typeFilter(ExecutableElement method) {
+        AnnotationValue value = value(find(method, EVENT_TYPE), "typeFilter");
+        return value == null ? null : processingEnv.getTypeUtils().erasure((TypeMirror) value.getValue());
+    }
+
+    private AnnotationValue value(AnnotationMirror annotation, String name) {
+        if (annotation == null) {
+            return null;
+        }
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationMirror find(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private boolean isReachable(TypeMirror type, PackageElement from) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isReachable(((ArrayType) type).getComponentType(), from);
+        }
+        return type.getKind() == TypeKind.DECLARED && isReachable((TypeElement) ((DeclaredType) type).asElement(), from);
+    }
+
+    /**
+     * A generated class is a top level class in the package of the listener class, so nothing private can be used.
+     */
+    private boolean isReachable(TypeElement type, PackageElement from) {
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(type).equals(from);
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            TypeElement typeElement = (TypeElement) current;
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS
+                    || typeElement.getModifiers().contains(Modifier.PRIVATE)
+                    || !samePackage && !typeElement.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class ListenerMethod {
+
+        private final String name;
+        private final boolean isStatic;
+        private final String eventClass;
+        private final byte priority;
+        private final String typeFilter;
+        private final boolean ignoreCanceled;
+
+        private ListenerMethod(ExecutableElement method, TypeMirror eventClass, byte priority, TypeMirror typeFilter, boolean ignoreCanceled) {
+            this.name = method.getSimpleName().toString();
+            this.isStatic = method.getModifiers().contains(Modifier.STATIC);
+            this.eventClass = eventClass.toString();
+            this.priority = priority;
+            this.typeFilter = typeFilter == null ? null : typeFilter.toString();
+            this.ignoreCanceled = ignoreCanceled;
+        }
+
+        private String invoker(String provider) {
+            return isStatic ? provider + "::" + name : "provider::" + name;
+        }
+
+    }
+
+}
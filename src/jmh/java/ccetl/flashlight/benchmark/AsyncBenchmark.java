@@ -0,0 +1,81 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares synchronous posting with asynchronous posting, both fire-and-forget and awaited.
+ * <p>
+ * The fire-and-forget benchmark waits for its pending posts every {@link AsyncBenchmark#PENDING} events, so the
+ * executor doesn't fall arbitrarily far behind; the time per event includes that share of the wait.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncBenchmark {
+
+    private static final int PENDING = 1024;
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private final BenchmarkEvent event = new BenchmarkEvent();
+    private final CompletableFuture<?>[] pending = new CompletableFuture<?>[PENDING];
+    private int next;
+    private EventSystem eventSystem;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        for (int i = 0; i < listeners; i++) {
+            eventSystem.register(new LambdaListener<>(BenchmarkEvent.class, event -> event.value++));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        CompletableFuture.allOf(Arrays.copyOf(pending, next)).join();
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    public boolean sync() {
+        return eventSystem.post(event);
+    }
+
+    @Benchmark
+    public CompletableFuture<Boolean> async() {
+        CompletableFuture<Boolean> future = eventSystem.postAsync(event);
+        pending[next++] = future;
+        if (next == PENDING) {
+            CompletableFuture.allOf(pending).join();
+            next = 0;
+        }
+        return future;
+    }
+
+    @Benchmark
+    public boolean awaited() {
+        return eventSystem.post(event, true, true);
+    }
+
+}
@@ -0,0 +1,9 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.event.Cancelable;
+
+public class BenchmarkEvent extends Cancelable {
+
+    public int value;
+
+}
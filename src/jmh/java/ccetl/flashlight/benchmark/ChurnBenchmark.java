@@ -0,0 +1,78 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures posting while another thread keeps registering and deregistering a listener of the posted event class.
+ * {@code steady} is the same posting without the churn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ChurnBenchmark {
+
+    private static final int LISTENERS = 10;
+
+    private final LambdaListener<BenchmarkEvent> churning = new LambdaListener<>(BenchmarkEvent.class, event -> event.value++);
+    private EventSystem eventSystem;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        for (int i = 0; i < LISTENERS; i++) {
+            eventSystem.register(new LambdaListener<>(BenchmarkEvent.class, event -> event.value++));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public boolean post(Poster poster) {
+        return eventSystem.post(poster.event);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void registerDeregister() {
+        eventSystem.register(churning);
+        eventSystem.deregister(churning);
+    }
+
+    @Benchmark
+    @Group("steady")
+    @GroupThreads(3)
+    public boolean steady(Poster poster) {
+        return eventSystem.post(poster.event);
+    }
+
+    @State(Scope.Thread)
+    public static class Poster {
+        private final BenchmarkEvent event = new BenchmarkEvent();
+    }
+
+}
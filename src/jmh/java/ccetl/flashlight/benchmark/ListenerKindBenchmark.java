@@ -0,0 +1,78 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.annotation.EventListener;
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares annotated method listeners with hand-written lambda listeners. Every kind runs in its own fork, so the call
+ * sites don't get polluted by the other kind.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerKindBenchmark {
+
+    @Param({"method", "lambda"})
+    public String kind;
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private final BenchmarkEvent event = new BenchmarkEvent();
+    private EventSystem eventSystem;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        for (int i = 0; i < listeners; i++) {
+            if (kind.equals("lambda")) {
+                LambdaProvider provider = new LambdaProvider();
+                eventSystem.register(new LambdaListener<>(BenchmarkEvent.class, provider::onEvent));
+            } else {
+                eventSystem.register(new MethodProvider());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    public boolean post() {
+        return eventSystem.post(event);
+    }
+
+    public static class MethodProvider {
+        @EventListener
+        public void onEvent(BenchmarkEvent event) {
+            event.value++;
+        }
+    }
+
+    public static class LambdaProvider {
+        public void onEvent(BenchmarkEvent event) {
+            event.value++;
+        }
+    }
+
+}
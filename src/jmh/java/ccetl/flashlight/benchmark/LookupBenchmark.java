@@ -0,0 +1,119 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventBus;
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the listeners of an event class in a {@link ConcurrentHashMap} with reading them from a
+ * {@link ClassValue} slot, which the listener registry uses, and measures the posts of both dispatchers on top of it,
+ * including the hierarchical dispatch of the event system.
+ * The events cycle through several classes, so the lookups can't be folded into a single cached one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    private final Object[] events = {new A(), new B(), new C(), new D()};
+    private final Map<Class<?>, Slot> map = new ConcurrentHashMap<>();
+    private final ClassValue<Slot> slots = new ClassValue<Slot>() {
+        @Override
+        protected Slot computeValue(Class<?> type) {
+            return new Slot();
+        }
+    };
+    private EventSystem eventSystem;
+    private EventSystem hierarchical;
+    private EventBus eventBus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        hierarchical = new EventSystem();
+        hierarchical.setHierarchyDispatch(true);
+        eventBus = new EventBus();
+        for (Object event : events) {
+            Class<?> eventClass = event.getClass();
+            map.put(eventClass, new Slot());
+            slots.get(eventClass);
+            eventSystem.register(new LambdaListener<>(eventClass, e -> {
+            }));
+            hierarchical.register(new LambdaListener<>(eventClass, e -> {
+            }));
+            eventBus.register(new LambdaListener<>(eventClass, e -> {
+            }));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+        hierarchical.shutDown();
+    }
+
+    private Object next() {
+        return events[next++ & (events.length - 1)];
+    }
+
+    @Benchmark
+    public Slot concurrentHashMap() {
+        return map.get(next().getClass());
+    }
+
+    @Benchmark
+    public Slot classValue() {
+        return slots.get(next().getClass());
+    }
+
+    @Benchmark
+    public boolean eventSystem() {
+        return eventSystem.post(next());
+    }
+
+    @Benchmark
+    public boolean eventSystemHierarchical() {
+        return hierarchical.post(next());
+    }
+
+    @Benchmark
+    public boolean eventBus() {
+        return eventBus.post(next());
+    }
+
+    public static final class Slot {
+        public volatile Object value;
+    }
+
+    public static final class A {
+    }
+
+    public static final class B {
+    }
+
+    public static final class C {
+    }
+
+    public static final class D {
+    }
+
+}
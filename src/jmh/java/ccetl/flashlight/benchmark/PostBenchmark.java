@@ -0,0 +1,64 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventBus;
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link EventSystem#post(Object)} with {@link EventBus#post(Object)} on the same lambda listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int listeners;
+
+    private final BenchmarkEvent event = new BenchmarkEvent();
+    private EventSystem eventSystem;
+    private EventBus eventBus;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        eventBus = new EventBus();
+        for (int i = 0; i < listeners; i++) {
+            eventSystem.register(new LambdaListener<>(BenchmarkEvent.class, event -> event.value++));
+            eventBus.register(new LambdaListener<>(BenchmarkEvent.class, event -> event.value++));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    public boolean eventSystem() {
+        return eventSystem.post(event);
+    }
+
+    @Benchmark
+    public boolean eventBus() {
+        return eventBus.post(event);
+    }
+
+}
@@ -0,0 +1,77 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.dispatcher.IntEventChannel;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting a number through an {@link IntEventChannel} with posting a new wrapper event through an
+ * {@link EventSystem}. Run with {@code -prof gc} to see the allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimitiveChannelBenchmark {
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private EventSystem eventSystem;
+    private IntEventChannel channel;
+    private int value;
+    private long sum;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        channel = new IntEventChannel();
+        for (int i = 0; i < listeners; i++) {
+            eventSystem.register(new LambdaListener<>(IntEvent.class, event -> sum += event.value));
+            channel.register(value -> {
+                sum += value;
+                return false;
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    public boolean channel() {
+        return channel.post(value++);
+    }
+
+    @Benchmark
+    public boolean wrapperEvent() {
+        return eventSystem.post(new IntEvent(value++));
+    }
+
+    public static class IntEvent {
+        public final int value;
+
+        public IntEvent(int value) {
+            this.value = value;
+        }
+    }
+
+}
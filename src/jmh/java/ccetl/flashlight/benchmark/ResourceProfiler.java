@@ -0,0 +1,54 @@
+package ccetl.flashlight.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Reports the most platform threads alive and the most heap used during every iteration.
+ * Run with {@code gradle jmh -PjmhProfiler=ccetl.flashlight.benchmark.ResourceProfiler}.
+ */
+public class ResourceProfiler implements InternalProfiler {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        threads.resetPeakThreadCount();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        return Arrays.asList(
+                new ScalarResult("peak.threads", threads.getPeakThreadCount(), "threads", AggregationPolicy.MAX),
+                new ScalarResult("peak.heap", peakHeap / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+    }
+
+    @Override
+    public String getDescription() {
+        return "Peak platform threads and heap usage per iteration";
+    }
+
+}
@@ -0,0 +1,101 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.dispatcher.RingBufferChannel;
+import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting a new event every time with posting preallocated events through a {@link RingBufferChannel},
+ * claimed one by one or in batches.
+ * The channel is drained on the benchmark thread after every batch, so its allocations cover both sides; run with
+ * {@code gradle jmh -Pjmh=RingBuffer -PjmhProfiler=gc} to see the allocated bytes per event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RingBufferBenchmark {
+
+    private static final int LISTENERS = 5;
+    private static final int BATCH = 256;
+
+    private EventSystem eventSystem;
+    private RingBufferChannel<RingEvent> channel;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        for (int i = 0; i < LISTENERS; i++) {
+            eventSystem.register(new LambdaListener<>(RingEvent.class, event -> event.sum += event.value));
+        }
+        channel = new RingBufferChannel<>(eventSystem, BATCH, RingEvent::new, RingEvent::reset);
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void allocating(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            RingEvent event = new RingEvent();
+            event.value = i;
+            eventSystem.post(event);
+            // real events usually escape
+            blackhole.consume(event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int ring() {
+        for (int i = 0; i < BATCH; i++) {
+            long sequence = channel.next();
+            channel.get(sequence).value = i;
+            channel.publish(sequence);
+        }
+        return channel.poll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int ringBatched() {
+        long high = channel.next(BATCH);
+        long low = high - BATCH + 1;
+        for (long sequence = low; sequence <= high; sequence++) {
+            channel.get(sequence).value = (int) (sequence - low);
+        }
+        channel.publish(low, high);
+        return channel.poll();
+    }
+
+    public static class RingEvent extends Cancelable {
+        public int value;
+        public long sum;
+
+        private void reset() {
+            canceled = false;
+        }
+    }
+
+}
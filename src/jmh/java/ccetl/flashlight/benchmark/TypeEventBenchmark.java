@@ -0,0 +1,103 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.annotation.EventListener;
+import ccetl.flashlight.annotation.EventType;
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.event.TypeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link EventType} filtering of {@link TypeEvent}s. Half of the listeners accept the type of the posted
+ * event and half reject it; {@code untyped} posts a plain event to as many listeners as accept the typed one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeEventBenchmark {
+
+    @Param({"10", "100"})
+    public int listeners;
+
+    private final TypedEvent typedEvent = new TypedEvent(String.class);
+    private final BenchmarkEvent untypedEvent = new BenchmarkEvent();
+    private EventSystem eventSystem;
+
+    @Setup
+    public void setUp() {
+        eventSystem = new EventSystem();
+        for (int i = 0; i < listeners / 2; i++) {
+            eventSystem.register(new StringProvider());
+            eventSystem.register(new IntegerProvider());
+            eventSystem.register(new UntypedProvider());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    public boolean typed() {
+        return eventSystem.post(typedEvent);
+    }
+
+    @Benchmark
+    public boolean untyped() {
+        return eventSystem.post(untypedEvent);
+    }
+
+    public static class TypedEvent implements TypeEvent {
+        private final Class<?> type;
+        public int value;
+
+        public TypedEvent(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    public static class StringProvider {
+        @EventListener
+        @EventType(typeFilter = String.class)
+        public void onEvent(TypedEvent event) {
+            event.value++;
+        }
+    }
+
+    public static class IntegerProvider {
+        @EventListener
+        @EventType(typeFilter = Integer.class)
+        public void onEvent(TypedEvent event) {
+            event.value++;
+        }
+    }
+
+    public static class UntypedProvider {
+        @EventListener
+        public void onEvent(BenchmarkEvent event) {
+            event.value++;
+        }
+    }
+
+}
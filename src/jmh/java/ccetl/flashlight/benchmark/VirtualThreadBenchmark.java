@@ -0,0 +1,81 @@
+package ccetl.flashlight.benchmark;
+
+import ccetl.flashlight.dispatcher.EventSystem;
+import ccetl.flashlight.listener.LambdaListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the default platform thread pool with virtual threads for listeners blocking on I/O, simulated by sleeping.
+ * Every invocation fires a burst of asynchronous posts at once and waits for all of them; the score is the throughput
+ * in events per second. Virtual threads need Java 21 or newer, on older runtimes pass {@code -p executor=platform}.
+ * Run with {@code gradle jmh -Pjmh=VirtualThread -PjmhProfiler=ccetl.flashlight.benchmark.ResourceProfiler} to also see
+ * the peak platform threads and heap usage; virtual threads only count through their carrier threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final int LISTENERS = 10;
+    private static final int EVENTS = 2_000;
+    private static final long BLOCKING_MILLIS = 5;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    private EventSystem eventSystem;
+
+    @Setup
+    public void setUp() {
+        if (executor.equals("virtual") && !EventSystem.isVirtualThreadSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer");
+        }
+
+        eventSystem = executor.equals("virtual") ? EventSystem.withVirtualThreads() : new EventSystem();
+        for (int i = 0; i < LISTENERS; i++) {
+            eventSystem.register(new LambdaListener<>(BenchmarkEvent.class, VirtualThreadBenchmark::block));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void burst() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            futures[i] = eventSystem.postAsync(new BenchmarkEvent());
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static void block(BenchmarkEvent event) {
+        try {
+            Thread.sleep(BLOCKING_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -15,4 +15,11 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface EventListener {
+
+    /**
+     * @return true if the listener should be skipped once the event got canceled
+     * @see ccetl.flashlight.listener.Listener#ignoresCanceled()
+     */
+    boolean ignoreCanceled() default false;
+
 }
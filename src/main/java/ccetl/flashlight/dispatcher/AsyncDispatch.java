@@ -0,0 +1,284 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.event.TypeEvent;
+import ccetl.flashlight.listener.Listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One asynchronous post.
+ * <p>
+ * The listeners are split into a limited number of batches, by default one per processor, each running a contiguous
+ * range of the chain on the executor. The batch finishing last completes the future, so no thread ever waits for the
+ * others. A throwing listener doesn't stop its batch; the first failure completes the future exceptionally once every
+ * listener ran, with the later ones attached as suppressed exceptions.
+ * <p>
+ * A tiered post only runs the listeners of one priority at a time. The batch finishing a tier starts the next one,
+ * running its first batch itself, unless the event got canceled in the meantime.
+ * <p>
+ * A tracked post records when every listener started and finished, so a {@link Watchdog} can find the listeners
+ * running over their deadline and a timed out wait can tell which listeners haven't finished yet.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class AsyncDispatch {
+
+    static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final long PENDING = Long.MIN_VALUE;
+    private static final long DONE = Long.MAX_VALUE;
+
+    private final Executor executor;
+    private final Object event;
+    private final Listener[] listeners;
+    private final boolean type;
+    private final boolean tiered;
+    private final int parallelism;
+    private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+    /**
+     * The batches of the current tier which are still running.
+     */
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    /**
+     * The end of the current tier; only written before the batches of a tier get submitted.
+     */
+    private volatile int tierEnd;
+    /**
+     * Set once the executor rejected a batch, so no further tier gets started.
+     */
+    private volatile boolean rejected;
+    /**
+     * When every listener started, {@link AsyncDispatch#PENDING} before and {@link AsyncDispatch#DONE} after;
+     * null if the post isn't tracked.
+     */
+    @Nullable
+    private final AtomicLongArray started;
+    /**
+     * The listeners already reported by the watchdog; only accessed by its thread.
+     */
+    @Nullable
+    private final boolean[] reported;
+    private final long deadlineNanos;
+
+    private AsyncDispatch(Executor executor, Object event, Listener[] listeners, boolean tiered, int parallelism,
+                          boolean tracked, long deadlineNanos) {
+        this.executor = executor;
+        this.event = event;
+        this.listeners = listeners;
+        this.type = event instanceof TypeEvent;
+        this.tiered = tiered;
+        this.parallelism = parallelism;
+        this.deadlineNanos = deadlineNanos;
+        if (tracked) {
+            started = new AtomicLongArray(listeners.length);
+            for (int i = 0; i < listeners.length; i++) {
+                started.set(i, PENDING);
+            }
+            reported = new boolean[listeners.length];
+        } else {
+            started = null;
+            reported = null;
+        }
+    }
+
+    /**
+     * @param listeners   the listeners sorted by priority; the array must not be modified
+     * @param tiered      whether the listeners of a lower priority wait for the ones of a higher priority
+     * @param parallelism the maximum number of batches per tier
+     * @param tracked     whether the unfinished listeners should be known
+     * @param watchdog    the watchdog checking the deadlines, which implies tracking
+     * @return the started post, whose future is completed with the cancellation status once all listeners ran
+     */
+    static AsyncDispatch start(Executor executor, Object event, Listener[] listeners, boolean tiered, int parallelism,
+                               boolean tracked, @Nullable Watchdog watchdog) {
+        long deadlineNanos = watchdog == null ? 0 : watchdog.deadlineNanos(event.getClass());
+        AsyncDispatch dispatch = new AsyncDispatch(executor, event, listeners, tiered, parallelism,
+                tracked || deadlineNanos > 0, deadlineNanos);
+        if (listeners.length == 0) {
+            dispatch.future.complete(isCanceled(event));
+            return dispatch;
+        }
+
+        if (deadlineNanos > 0) {
+            watchdog.watch(dispatch);
+            dispatch.future.whenComplete((canceled, failure) -> watchdog.unwatch(dispatch));
+        }
+        dispatch.schedule(0, false);
+        return dispatch;
+    }
+
+    CompletableFuture<Boolean> future() {
+        return future;
+    }
+
+    /**
+     * @return the listeners which haven't finished yet, unwrapped; empty once the post completed or if it isn't
+     * tracked
+     */
+    List<Listener<?>> unfinished() {
+        if (started == null || future.isDone()) {
+            return Collections.emptyList();
+        }
+
+        List<Listener<?>> unfinished = new ArrayList<>();
+        for (int i = 0; i < listeners.length; i++) {
+            if (started.get(i) != DONE) {
+                unfinished.add(ListenerChain.unwrap(listeners[i]));
+            }
+        }
+        return unfinished;
+    }
+
+    /**
+     * Reports every listener which is running longer than the deadline, once per post.
+     * Only called by the thread of the watchdog.
+     */
+    void check(long now, Watchdog watchdog) {
+        for (int i = 0; i < listeners.length; i++) {
+            long start = started.get(i);
+            if (start != PENDING && start != DONE && !reported[i] && now - start > deadlineNanos) {
+                reported[i] = true;
+                watchdog.overrun(ListenerChain.unwrap(listeners[i]), event, now - start);
+            }
+        }
+    }
+
+    /**
+     * Submits the batches of the tier starting at the index.
+     *
+     * @param inline whether the first batch is left out, so the calling thread can run it
+     * @return the end of the first batch
+     */
+    private int schedule(int from, boolean inline) {
+        int to = tiered ? tierEnd(from) : listeners.length;
+        int batches = Math.min(to - from, parallelism);
+        int size = (to - from) / batches;
+        int rest = (to - from) % batches;
+
+        tierEnd = to;
+        remaining.set(batches);
+        int firstEnd = from + size + (rest > 0 ? 1 : 0);
+        int start = from;
+        for (int i = 0; i < batches; i++) {
+            int end = start + size + (i < rest ? 1 : 0);
+            if (!inline || i != 0) {
+                submit(start, end);
+            }
+            start = end;
+        }
+        return firstEnd;
+    }
+
+    private int tierEnd(int from) {
+        byte priority = listeners[from].getPriority();
+        int to = from + 1;
+        while (to < listeners.length && listeners[to].getPriority() == priority) {
+            to++;
+        }
+        return to;
+    }
+
+    private void submit(int from, int to) {
+        try {
+            executor.execute(new Batch(from, to));
+        } catch (Throwable e) {
+            rejected = true;
+            fail(e);
+            finish();
+        }
+    }
+
+    private void run(int from, int to) {
+        invoke(from, to);
+        finish();
+    }
+
+    private void invoke(int from, int to) {
+        final AtomicLongArray started = this.started;
+        for (int i = from; i < to; i++) {
+            Listener listener = listeners[i];
+            if (started != null) {
+                started.set(i, System.nanoTime());
+            }
+            try {
+                if (EventSystem.notFiltered(event, listener, type)) {
+                    continue;
+                }
+
+                listener.invoke(event);
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                if (started != null) {
+                    started.set(i, DONE);
+                }
+            }
+        }
+    }
+
+    private void fail(Throwable e) {
+        if (!failure.compareAndSet(null, e) && failure.get() != e) {
+            failure.get().addSuppressed(e);
+        }
+    }
+
+    /**
+     * Called once per batch; the last batch of a tier either starts the next tier or completes the future.
+     */
+    private void finish() {
+        while (remaining.decrementAndGet() == 0) {
+            int from = tierEnd;
+            if (from == listeners.length || rejected || isCanceled(event)) {
+                complete();
+                return;
+            }
+
+            invoke(from, schedule(from, true));
+        }
+    }
+
+    private void complete() {
+        Throwable failure = this.failure.get();
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(isCanceled(event));
+        }
+    }
+
+    private static boolean isCanceled(Object event) {
+        return event instanceof Cancelable && ((Cancelable) event).isCanceled();
+    }
+
+    private final class Batch implements BoundedExecutor.Prioritized {
+
+        private final int from;
+        private final int to;
+
+        private Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            AsyncDispatch.this.run(from, to);
+        }
+
+        @Override
+        public byte getPriority() {
+            return listeners[from].getPriority();
+        }
+
+    }
+
+}
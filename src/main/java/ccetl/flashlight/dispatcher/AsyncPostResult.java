@@ -0,0 +1,55 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.Listener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of an asynchronous post awaited with a timeout.
+ *
+ * @see EventSystem#postAsync(Object, long, TimeUnit)
+ */
+public final class AsyncPostResult {
+
+    private final boolean complete;
+    private final boolean canceled;
+    private final List<Listener<?>> unfinished;
+
+    AsyncPostResult(boolean complete, boolean canceled, List<Listener<?>> unfinished) {
+        this.complete = complete;
+        this.canceled = canceled;
+        this.unfinished = unfinished;
+    }
+
+    /**
+     * @return true if every listener finished in time
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the cancellation status, which may still change if the post isn't complete
+     */
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * @return the listeners still running or waiting to run when the wait ended; empty if the post is complete
+     */
+    public List<Listener<?>> getUnfinished() {
+        return unfinished;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncPostResult{" +
+                "complete=" + complete +
+                ", canceled=" + canceled +
+                ", unfinished=" + unfinished +
+                '}';
+    }
+
+}
@@ -0,0 +1,254 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.event.DefaultPriorities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded executor for asynchronous posts, keeping the number of threads and waiting tasks fixed under load.
+ * <p>
+ * The tasks run on a work-stealing {@link ForkJoinPool} of daemon threads, one per processor by default, in the order
+ * they were submitted. At most {@code capacity} tasks may be waiting or running at a time; what happens to a task
+ * submitted beyond that is decided by the {@link QueueFullPolicy}:
+ * <ul>
+ *     <li>{@link QueueFullPolicy#BLOCK}: the submitting thread waits for room.</li>
+ *     <li>{@link QueueFullPolicy#CALLER_RUNS}: the submitting thread runs the task itself.</li>
+ *     <li>{@link QueueFullPolicy#DROP}: the task is rejected with a {@link RejectedExecutionException} if its priority
+ *     is below the shedding threshold, otherwise the submitting thread waits. The priority of the asynchronous batches
+ *     of an event system is the one of their first listener; other tasks count as {@link DefaultPriorities#NORMAL}.
+ *     A rejected batch completes its post exceptionally.</li>
+ * </ul>
+ * The workers never wait for room themselves, e.g. when a tiered post submits its next tier, but run the task inline,
+ * so the pool can't deadlock on its own capacity.
+ *
+ * @see EventSystem#EventSystem(java.util.concurrent.ExecutorService)
+ */
+public final class BoundedExecutor extends AbstractExecutorService {
+
+    private static final AtomicInteger POOLS = new AtomicInteger();
+
+    private final ForkJoinPool pool;
+    private final int capacity;
+    private final QueueFullPolicy policy;
+    private final int shedBelow;
+    private final Semaphore permits;
+    /**
+     * The submitted tasks which haven't started yet; a task is claimed by removing it, either by the worker running it
+     * or by {@link BoundedExecutor#shutdownNow()}.
+     */
+    private final Set<Queued> waiting = ConcurrentHashMap.newKeySet();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    /**
+     * Creates an executor with one worker per processor which drops every task on {@link QueueFullPolicy#DROP}.
+     *
+     * @param capacity the maximum number of waiting and running tasks
+     * @param policy   what to do with tasks submitted while the executor is full
+     */
+    public BoundedExecutor(int capacity, QueueFullPolicy policy) {
+        this(AsyncDispatch.PARALLELISM, capacity, policy, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param workers   the number of worker threads
+     * @param capacity  the maximum number of waiting and running tasks
+     * @param policy    what to do with tasks submitted while the executor is full
+     * @param shedBelow on {@link QueueFullPolicy#DROP}, tasks with a lower priority get rejected while the others wait
+     */
+    public BoundedExecutor(int workers, int capacity, QueueFullPolicy policy, int shedBelow) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers: " + workers);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+
+        int id = POOLS.getAndIncrement();
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = new ForkJoinPool(workers, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("flashlight-worker-" + id + "-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+        this.capacity = capacity;
+        this.policy = policy;
+        this.shedBelow = shedBelow;
+        this.permits = new Semaphore(capacity);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            if (policy == QueueFullPolicy.CALLER_RUNS) {
+                runInline(task);
+                return;
+            }
+            if (policy == QueueFullPolicy.DROP && priority(task) < shedBelow) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("The executor is full");
+            }
+
+            // blocking, or the task is too important to be dropped
+            if (isWorker()) {
+                runInline(task);
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Interrupted while waiting for room", e);
+            }
+        }
+
+        Queued queued = new Queued(task);
+        waiting.add(queued);
+        try {
+            pool.execute(queued);
+        } catch (Throwable e) {
+            if (waiting.remove(queued)) {
+                permits.release();
+            }
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private void runInline(Runnable task) {
+        if (pool.isShutdown()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("The executor is shut down");
+        }
+
+        callerRuns.incrementAndGet();
+        task.run();
+    }
+
+    private boolean isWorker() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+    }
+
+    private static int priority(Runnable task) {
+        return task instanceof Prioritized ? ((Prioritized) task).getPriority() : DefaultPriorities.NORMAL;
+    }
+
+    /**
+     * @return the number of tasks waiting for a worker
+     */
+    public int getQueuedTasks() {
+        return waiting.size();
+    }
+
+    /**
+     * @return the number of tasks running on a worker
+     */
+    public int getActiveTasks() {
+        return capacity - permits.availablePermits() - waiting.size();
+    }
+
+    /**
+     * @return the number of tasks rejected since the executor was created
+     */
+    public long getRejectedTasks() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the number of tasks the submitting thread ran itself since the executor was created
+     */
+    public long getCallerRunTasks() {
+        return callerRuns.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getWorkers() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return the submitted tasks which haven't started yet
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        pool.shutdownNow();
+        List<Runnable> tasks = new ArrayList<>();
+        for (Queued queued : waiting) {
+            if (waiting.remove(queued)) {
+                permits.release();
+                tasks.add(queued.task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return pool.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    private final class Queued implements Runnable {
+
+        private final Runnable task;
+
+        private Queued(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!waiting.remove(this)) {
+                return;
+            }
+
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }
+
+    }
+
+    /**
+     * A task with the priority of the listeners it runs.
+     */
+    interface Prioritized extends Runnable {
+
+        byte getPriority();
+
+    }
+
+}
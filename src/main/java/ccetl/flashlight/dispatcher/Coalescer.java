@@ -0,0 +1,88 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Collects the events of one class until they get flushed, keeping a single event per key.
+ * <p>
+ * A flush swaps the pending events for an empty map while holding the lock, so posting threads only wait for a
+ * map operation and never for listeners.
+ * <p>
+ * A closed coalescer rejects new events, so a posting thread which looked it up just before it got replaced or
+ * removed can look again instead of adding the event to a coalescer nobody flushes anymore.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class Coalescer {
+
+    private final Function keyExtractor;
+    /**
+     * Combines the pending and the new event; null to keep the new one.
+     */
+    @Nullable
+    private final BinaryOperator merger;
+    private Map<Object, Object> pending = new LinkedHashMap<>();
+    private boolean closed;
+
+    Coalescer(Function<?, ?> keyExtractor, @Nullable BinaryOperator<?> merger) {
+        this.keyExtractor = keyExtractor;
+        this.merger = merger;
+    }
+
+    /**
+     * @return false if the coalescer is closed and the event wasn't added
+     */
+    boolean add(Object event) {
+        Object key = keyExtractor.apply(event);
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (merger == null) {
+                pending.put(key, event);
+            } else {
+                pending.merge(key, event, merger);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hands every pending event to the consumer, in the order their keys first arrived.
+     */
+    void flush(Consumer<Object> dispatch) {
+        flush(dispatch, false);
+    }
+
+    /**
+     * Rejects every further event and hands the pending ones to the consumer.
+     *
+     * @param dispatch the consumer or null to drop the pending events
+     */
+    void close(@Nullable Consumer<Object> dispatch) {
+        flush(dispatch, true);
+    }
+
+    private void flush(@Nullable Consumer<Object> dispatch, boolean close) {
+        Map<Object, Object> events;
+        synchronized (this) {
+            closed |= close;
+            if (pending.isEmpty() || dispatch == null) {
+                pending.clear();
+                return;
+            }
+            events = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        for (Object event : events.values()) {
+            dispatch.accept(event);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package ccetl.flashlight.dispatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The events deferred to one {@link ccetl.flashlight.event.Stage}, grouped by their class.
+ */
+final class DeferredEvents {
+
+    private Map<Class<?>, List<Object>> batches = new LinkedHashMap<>();
+
+    synchronized void add(Object event) {
+        batches.computeIfAbsent(event.getClass(), eventClass -> new ArrayList<>()).add(event);
+    }
+
+    /**
+     * Takes all deferred events; events deferred afterward belong to the next flush.
+     *
+     * @return the events per class, in the order the classes were first deferred
+     */
+    synchronized Map<Class<?>, List<Object>> drain() {
+        if (batches.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Class<?>, List<Object>> batches = this.batches;
+        this.batches = new LinkedHashMap<>();
+        return batches;
+    }
+
+}
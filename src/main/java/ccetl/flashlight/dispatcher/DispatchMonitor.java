@@ -0,0 +1,72 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.listener.Listener;
+
+/**
+ * Observes the posts of an event system and optionally every listener invocation, e.g. to emit profiling events.
+ * <p>
+ * The callbacks run on the posting threads, or on the executor for asynchronous listeners, and must not throw.
+ * A start callback returns a token, like a started measurement, which is passed to its finish callback.
+ *
+ * @see IEventSystem#setMonitor(DispatchMonitor)
+ */
+public interface DispatchMonitor {
+
+    /**
+     * Called before the listeners of the event get looked up.
+     *
+     * @return the token for {@link DispatchMonitor#postFinished}
+     */
+    @Nullable
+    Object postStarted(Object event);
+
+    /**
+     * Called after the post, also if a listener threw an exception.
+     *
+     * @param token     the token returned by {@link DispatchMonitor#postStarted}
+     * @param listeners the number of listeners the event was posted to, including filtered ones
+     * @param canceled  the cancellation status
+     */
+    void postFinished(@Nullable Object token, Object event, int listeners, boolean canceled);
+
+    /**
+     * Read once when the monitor gets set; listeners are only wrapped for the listener callbacks if this is true.
+     *
+     * @return true to get the listener callbacks
+     */
+    default boolean monitorsListeners() {
+        return false;
+    }
+
+    /**
+     * @return the token for {@link DispatchMonitor#listenerFinished}
+     */
+    @Nullable
+    default Object listenerStarted(Listener<?> listener, Object event) {
+        return null;
+    }
+
+    /**
+     * Called after the listener was invoked, also if it threw an exception.
+     *
+     * @param token the token returned by {@link DispatchMonitor#listenerStarted}
+     */
+    default void listenerFinished(@Nullable Object token, Listener<?> listener, Object event) {
+    }
+
+    /**
+     * @return the class of the object providing the listener: the provider of an annotated method, otherwise the class
+     * of the listener itself
+     */
+    static Class<?> ownerOf(Listener<?> listener) {
+        if (listener instanceof MethodListener) {
+            Object provider = ((MethodListener<?>) listener).getProvider();
+            if (provider != null) {
+                return provider.getClass();
+            }
+        }
+        return listener.getClass();
+    }
+
+}
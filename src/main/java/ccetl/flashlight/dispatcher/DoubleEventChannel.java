@@ -0,0 +1,31 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.DoubleListener;
+
+/**
+ * Posts {@code double} values to {@link DoubleListener}s without boxing or allocating.
+ *
+ * @see PrimitiveChannel
+ */
+public final class DoubleEventChannel extends PrimitiveChannel<DoubleListener> {
+
+    public DoubleEventChannel() {
+        super(DoubleListener[]::new);
+    }
+
+    /**
+     * Posts the value to the listeners, in priority order, until one of them cancels it.
+     *
+     * @param value the value to post
+     * @return true if a listener canceled the post
+     */
+    public boolean post(double value) {
+        for (DoubleListener listener : listeners) {
+            if (listener.invoke(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -2,14 +2,14 @@ package ccetl.flashlight.dispatcher;
 
 import ccetl.flashlight.annotation.Nullable;
 import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.listener.BatchListener;
 import ccetl.flashlight.listener.Listener;
 
 import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -21,16 +21,24 @@ import java.util.function.Consumer;
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class EventBus implements IEventSystem {
 
-    private final Map<Class<?>, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private final ListenerRegistry listeners = new ListenerRegistry(eventClass -> {
+    });
+    @Nullable
+    private volatile Monitoring monitoring;
 
     @Override
     public boolean post(Object event) {
-        final List<Listener> listeners = this.listeners.get(event.getClass());
-        if (listeners == null || listeners.isEmpty()) {
+        final Monitoring monitoring = this.monitoring;
+        if (monitoring != null) {
+            return postMonitored(event, monitoring);
+        }
+
+        final ListenerChain chain = this.listeners.get(event.getClass());
+        if (chain == null) {
             return false;
         }
 
-        for (Listener listener : listeners) {
+        for (Listener listener : chain.listeners()) {
             listener.invoke(event);
         }
 
@@ -41,11 +49,86 @@ public class EventBus implements IEventSystem {
         }
     }
 
+    private boolean postMonitored(Object event, Monitoring monitoring) {
+        Object token = monitoring.monitor.postStarted(event);
+        ListenerChain chain = this.listeners.get(event.getClass());
+        Listener[] listeners = (chain == null ? ListenerChain.EMPTY : monitoring.wrap(chain)).listeners();
+        try {
+            for (Listener listener : listeners) {
+                listener.invoke(event);
+            }
+        } finally {
+            monitoring.monitor.postFinished(token, event, listeners.length,
+                    event instanceof Cancelable && ((Cancelable) event).isCanceled());
+        }
+        return event instanceof Cancelable && ((Cancelable) event).isCanceled();
+    }
+
+    @Override
+    public <E> void postAll(Collection<? extends E> events) {
+        postAll(events.toArray());
+    }
+
+    @Override
+    public <E> void postAll(E[] events) {
+        final Monitoring monitoring = this.monitoring;
+        int from = 0;
+        while (from < events.length) {
+            Class<?> eventClass = events[from].getClass();
+            int to = from + 1;
+            while (to < events.length && events[to].getClass() == eventClass) {
+                to++;
+            }
+
+            ListenerChain chain = this.listeners.get(eventClass);
+            if (monitoring != null) {
+                postRunMonitored(chain, events, from, to, monitoring);
+            } else if (chain != null) {
+                postRun(chain.listeners(), events, from, to);
+            }
+            from = to;
+        }
+    }
+
+    private static void postRunMonitored(@Nullable ListenerChain chain, Object[] events, int from, int to, Monitoring monitoring) {
+        Object[] tokens = new Object[to - from];
+        for (int i = from; i < to; i++) {
+            tokens[i - from] = monitoring.monitor.postStarted(events[i]);
+        }
+        Listener[] listeners = (chain == null ? ListenerChain.EMPTY : monitoring.wrap(chain)).listeners();
+        try {
+            postRun(listeners, events, from, to);
+        } finally {
+            for (int i = from; i < to; i++) {
+                monitoring.monitor.postFinished(tokens[i - from], events[i], listeners.length,
+                        events[i] instanceof Cancelable && ((Cancelable) events[i]).isCanceled());
+            }
+        }
+    }
+
+    private static void postRun(Listener[] listeners, Object[] events, int from, int to) {
+        for (Listener listener : listeners) {
+            if (listener instanceof BatchListener) {
+                ((BatchListener) listener).invokeAll(new ArrayList<>(Arrays.asList(events).subList(from, to)));
+                continue;
+            }
+
+            for (int i = from; i < to; i++) {
+                listener.invoke(events[i]);
+            }
+        }
+    }
+
     @Override
     public boolean post(Object event, boolean asynchronous, boolean await) {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public CompletableFuture<Boolean> postAsync(Object event) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void register(Object... objects) {
         throw new UnsupportedOperationException();
@@ -63,12 +146,12 @@ public class EventBus implements IEventSystem {
 
     @Override
     public void register(Listener<?> listener) {
-        List<Listener> pairs = listeners.computeIfAbsent(listener.getTarget(), e -> new CopyOnWriteArrayList<>());
-        int insertionIndex = Collections.binarySearch(pairs, listener, Listener::compareTo);
-        if (insertionIndex < 0) {
-            insertionIndex = ~insertionIndex;
-        }
-        pairs.add(insertionIndex, listener);
+        listeners.register(listener.getTarget(), listener);
+    }
+
+    @Override
+    public void registerAll(Collection<? extends Listener<?>> listeners) {
+        this.listeners.registerAll(listeners);
     }
 
     @Override
@@ -88,27 +171,32 @@ public class EventBus implements IEventSystem {
 
     @Override
     public boolean deregister(Listener<?> listener) {
-        List<Listener> pairs = this.listeners.get(listener.getTarget());
-        if (pairs != null) {
-            return pairs.removeIf(p -> p.equals(listener));
-        }
-        return false;
+        return listeners.deregister(listener.getTarget(), listener::equals);
+    }
+
+    @Override
+    public void deregisterAll(Collection<? extends Listener<?>> listeners) {
+        this.listeners.deregisterAll(listeners);
     }
 
     @Override
     public void deregisterAll(Class<?> clazz) {
-        listeners.remove(clazz);
+        listeners.deregisterAll(clazz);
     }
 
     @Override
     public boolean hasListeners(Class<?> eventClass) {
-        List<Listener> listeners = this.listeners.get(eventClass);
-        return listeners != null && !listeners.isEmpty();
+        return listeners.hasListeners(eventClass);
     }
 
     @Override
     public void scan(@Nullable Consumer<Class<?>> eventClassScanner, @Nullable BiConsumer<Class<?>, Listener> listenerScanner) {
-        Scanner.scanListeners(listeners, eventClassScanner, listenerScanner);
+        listeners.scan(eventClassScanner, listenerScanner);
+    }
+
+    @Override
+    public void setMonitor(@Nullable DispatchMonitor monitor) {
+        monitoring = Monitoring.of(monitor);
     }
 
 }
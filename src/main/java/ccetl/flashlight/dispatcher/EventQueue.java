@@ -0,0 +1,201 @@
+package ccetl.flashlight.dispatcher;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A bounded queue of events drained by dedicated dispatcher threads.
+ * <p>
+ * The queue is a lock-free array of slots, each carrying a sequence number which tells producers and dispatchers
+ * whether it's their turn; claiming a slot is a single compare-and-set. Idle dispatchers park and get woken by the
+ * producer which finds them parked after enqueueing.
+ */
+final class EventQueue {
+
+    /**
+     * The events a dispatcher takes before checking whether it should stop.
+     */
+    private static final int BATCH = 64;
+    private static final long BLOCK_NANOS = 10_000L;
+
+    private final AtomicReferenceArray<Object> events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final QueueFullPolicy policy;
+    private final Consumer<Object> dispatch;
+    private final Dispatcher[] dispatchers;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity    the maximum number of waiting events, rounded up to a power of two of at least 2
+     * @param dispatchers the number of dispatcher threads
+     * @param dispatch    posts a dequeued event
+     */
+    EventQueue(int capacity, int dispatchers, QueueFullPolicy policy, Consumer<Object> dispatch) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        if (dispatchers < 1) {
+            throw new IllegalArgumentException("dispatchers: " + dispatchers);
+        }
+
+        // a single slot couldn't tell a published event from a free slot of the next round
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.events = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.policy = policy;
+        this.dispatch = dispatch;
+
+        this.dispatchers = new Dispatcher[dispatchers];
+        for (int i = 0; i < dispatchers; i++) {
+            this.dispatchers[i] = new Dispatcher(i);
+        }
+        for (Dispatcher dispatcher : this.dispatchers) {
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * @return false if the event got dropped or the queue is stopped
+     */
+    boolean enqueue(Object event) {
+        if (!running) {
+            return false;
+        }
+
+        if (offer(event)) {
+            wakeUp();
+            return true;
+        }
+
+        switch (policy) {
+            case BLOCK:
+                do {
+                    wakeUp();
+                    LockSupport.parkNanos(this, BLOCK_NANOS);
+                    if (!running) {
+                        return false;
+                    }
+                } while (!offer(event));
+                wakeUp();
+                return true;
+            case CALLER_RUNS:
+                dispatch.accept(event);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean offer(Object event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.lazySet(index, event);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private Object poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Object event = events.get(index);
+                    events.lazySet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    return event;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Claimed slots count as well, even if their event isn't visible yet.
+     */
+    private boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    private void wakeUp() {
+        for (Dispatcher dispatcher : dispatchers) {
+            if (dispatcher.parked) {
+                LockSupport.unpark(dispatcher);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops the dispatcher threads; the events still in the queue are discarded.
+     */
+    void shutDown() {
+        running = false;
+        for (Dispatcher dispatcher : dispatchers) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private final class Dispatcher extends Thread {
+
+        private volatile boolean parked;
+
+        private Dispatcher(int index) {
+            super("flashlight-dispatcher-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                int drained = 0;
+                Object event;
+                while (drained < BATCH && (event = poll()) != null) {
+                    drained++;
+                    try {
+                        dispatch.accept(event);
+                    } catch (Throwable e) {
+                        getUncaughtExceptionHandler().uncaughtException(this, e);
+                    }
+                }
+
+                if (drained == 0) {
+                    parked = true;
+                    if (isEmpty() && running) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+    }
+
+}
@@ -1,21 +1,34 @@
 package ccetl.flashlight.dispatcher;
 
-import ccetl.flashlight.annotation.EventListener;
-import ccetl.flashlight.annotation.EventType;
-import ccetl.flashlight.annotation.ListenerPriority;
 import ccetl.flashlight.annotation.Nullable;
 import ccetl.flashlight.event.Cancelable;
-import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.event.Stage;
 import ccetl.flashlight.event.TypeEvent;
+import ccetl.flashlight.listener.FilterGroup;
 import ccetl.flashlight.listener.Listener;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * An event system.
@@ -27,18 +40,114 @@ import java.util.function.Consumer;
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class EventSystem implements IEventSystem {
 
-    private final Map<Class<?>, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private final ListenerRegistry listeners = new ListenerRegistry(this::invalidate);
+    private volatile boolean compiled;
+    /**
+     * The chains of every posted event class merged with the ones of its super types, kept in a slot attached to the
+     * class, so the cache doesn't keep unloaded event classes.
+     */
+    private final ClassValue<Flattened> hierarchy = new ClassValue<Flattened>() {
+        @Override
+        protected Flattened computeValue(Class<?> type) {
+            return new Flattened();
+        }
+    };
+    /**
+     * The classes with a flattened chain, held weakly. The chains are built and invalidated while holding the lock of
+     * this map, so a chain can't be built from outdated lists.
+     */
+    private final Map<Class<?>, Boolean> flattened = new WeakHashMap<>();
+    private volatile boolean hierarchical;
+    private volatile boolean tiered;
     /**
      * The thread pool for asynchronous execution.
      */
-    private final ThreadPoolExecutor executorService;
+    private final ExecutorService executorService;
+    /**
+     * The maximum number of tasks one asynchronous post is split into.
+     */
+    private final int parallelism;
+    @Nullable
+    private volatile EventQueue queue;
+    @Nullable
+    private volatile PartitionedDispatch partitions;
+    private final Map<Class<?>, Coalescer> coalescers = new ConcurrentHashMap<>();
+    /**
+     * Whether any event class is coalesced, so posts of other classes can skip the lookup.
+     */
+    private volatile boolean coalescing;
+    /**
+     * The deferred events of every {@link Stage}, indexed by its ordinal.
+     */
+    private final DeferredEvents[] deferred = {new DeferredEvents(), new DeferredEvents()};
+    /**
+     * The active instrumentation or null if the listeners run uninstrumented.
+     */
+    @Nullable
+    private volatile Instrumentation instrumentation;
+    /**
+     * The latest instrumentation, kept after disabling it so its statistics stay readable.
+     */
+    @Nullable
+    private volatile Instrumentation statistics;
+    @Nullable
+    private volatile Monitoring monitoring;
+    @Nullable
+    private volatile Watchdog watchdog;
+    /**
+     * The deadlines of the asynchronous listeners of single event classes in nanoseconds.
+     */
+    private final Map<Class<?>, Long> deadlines = new ConcurrentHashMap<>();
+    /**
+     * How long awaited asynchronous posts wait at most, 0 to wait until all listeners finished.
+     */
+    private volatile long awaitTimeoutNanos;
 
+    /**
+     * Creates an event system with a thread pool which starts a new thread whenever all threads are busy.
+     * Use {@link EventSystem#EventSystem(ExecutorService)} with a {@link BoundedExecutor} to limit the threads and
+     * the waiting tasks of asynchronous posts.
+     */
     public EventSystem() {
         this(new ThreadPoolExecutor(1, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>()));
     }
 
     public EventSystem(ThreadPoolExecutor executorService) {
+        this((ExecutorService) executorService);
+    }
+
+    /**
+     * @param executorService the executor for asynchronous posts, which get split into one task per processor
+     */
+    public EventSystem(ExecutorService executorService) {
+        this(executorService, AsyncDispatch.PARALLELISM);
+    }
+
+    private EventSystem(ExecutorService executorService, int parallelism) {
         this.executorService = executorService;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Creates an event system running asynchronous listeners on virtual threads, one thread per listener.
+     * <p>
+     * Virtual threads are cheap to create and don't hold on to a platform thread while blocking, so this suits
+     * listeners waiting for I/O. The default pool would start a new platform thread for every such listener during
+     * a burst instead.
+     *
+     * @return the new event system
+     * @throws UnsupportedOperationException if the runtime is older than Java 21
+     * @see EventSystem#isVirtualThreadSupported()
+     */
+    public static EventSystem withVirtualThreads() {
+        return new EventSystem(VirtualThreads.newExecutor(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return true if {@link EventSystem#withVirtualThreads()} is supported by the runtime
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
     }
 
     @Override
@@ -48,21 +157,68 @@ public class EventSystem implements IEventSystem {
 
     @Override
     public boolean post(Object event, boolean asynchronous, boolean await) {
-        final List<Listener> eventListeners = listeners.get(event.getClass());
-        if (eventListeners == null || eventListeners.isEmpty()) {
+        if (coalescing && coalesced(event, event.getClass())) {
             return false;
         }
 
-        boolean type = event instanceof TypeEvent;
+        return dispatch(event, asynchronous, await);
+    }
 
+    /**
+     * @return true if the event got added to the coalescer of its class
+     */
+    private boolean coalesced(Object event, Class<?> eventClass) {
+        Coalescer coalescer;
+        while ((coalescer = coalescers.get(eventClass)) != null) {
+            // a closed coalescer got replaced or removed right after the lookup, so look again
+            if (coalescer.add(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean dispatch(Object event, boolean asynchronous, boolean await) {
+        Monitoring monitoring = this.monitoring;
+        if (monitoring == null) {
+            return dispatch(event, chain(event, null), asynchronous, await);
+        }
+
+        Object token = monitoring.monitor.postStarted(event);
+        ListenerChain chain = chain(event, monitoring);
+        if (asynchronous && !await && !chain.isEmpty()) {
+            // the post only finishes with its last listener, not with the submission
+            monitorCompletion(startAsync(event, chain.listeners(), false), monitoring, token, event, chain.listeners());
+            return isCanceled(event);
+        }
+
+        try {
+            return dispatch(event, chain, asynchronous, await);
+        } finally {
+            monitoring.monitor.postFinished(token, event, chain.listeners().length, isCanceled(event));
+        }
+    }
+
+    private boolean dispatch(Object event, ListenerChain chain, boolean asynchronous, boolean await) {
+        if (chain.isEmpty()) {
+            return false;
+        }
+
+        boolean type = event instanceof TypeEvent;
         if (asynchronous) {
-            if (postAsynchronous(event, await, eventListeners, type)) {
+            if (postAsynchronous(event, await, chain.listeners())) {
                 return false;
             }
+        } else if (compiled || hierarchical) {
+            chain.post(event, type);
         } else {
-            postSynchronous(event, eventListeners, type);
+            postSynchronous(event, chain, type);
         }
 
+        return isCanceled(event);
+    }
+
+    private static boolean isCanceled(Object event) {
         if (event instanceof Cancelable) {
             return ((Cancelable) event).isCanceled();
         } else {
@@ -70,40 +226,489 @@ public class EventSystem implements IEventSystem {
         }
     }
 
-    private void postSynchronous(Object event, List<Listener> listeners, boolean type) {
-        for (Listener listener : listeners) {
-            if (notFiltered(event, listener, type)) {
-                continue;
+    /**
+     * @return the chain the event gets posted to, narrowed to the type of a {@link TypeEvent}
+     */
+    private ListenerChain chain(Object event, @Nullable Monitoring monitoring) {
+        ListenerChain chain = chain(event.getClass(), monitoring);
+        if (event instanceof TypeEvent && !chain.isEmpty()) {
+            chain = chain.forType(((TypeEvent) event).getType());
+        }
+        return chain;
+    }
+
+    /**
+     * @return the chain of the event class with instrumented and monitored listeners, as configured
+     */
+    private ListenerChain chain(Class<?> eventClass, @Nullable Monitoring monitoring) {
+        ListenerChain chain = hierarchical ? hierarchy(eventClass) : listeners.get(eventClass);
+        if (chain == null || chain.isEmpty()) {
+            return ListenerChain.EMPTY;
+        }
+
+        Instrumentation instrumentation = this.instrumentation;
+        if (instrumentation != null) {
+            chain = chain.wrapped(instrumentation);
+        }
+        return monitoring == null ? chain : monitoring.wrap(chain);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every run of consecutive events of the same class resolves its chain once, including the hierarchy, and always
+     * skips the default filters like the {@link EventSystem#setCompiledDispatch(boolean) compiled dispatch}.
+     * Coalesced events are added to their coalescer instead. A monitor sees every event of a run as posted during
+     * the whole run.
+     */
+    @Override
+    public <E> void postAll(Collection<? extends E> events) {
+        postAll(events.toArray());
+    }
+
+    @Override
+    public <E> void postAll(E[] events) {
+        int from = 0;
+        while (from < events.length) {
+            Class<?> eventClass = events[from].getClass();
+            int to = from + 1;
+            while (to < events.length && events[to].getClass() == eventClass) {
+                to++;
             }
 
-            listener.invoke(event);
+            postRun(events, from, to, eventClass);
+            from = to;
         }
     }
 
-    private boolean postAsynchronous(Object event, boolean await, List<Listener> listeners, boolean type) {
-        CountDownLatch countDownLatch = new CountDownLatch(listeners.size());
-        for (Listener listener : listeners) {
-            if (notFiltered(event, listener, type)) {
-                countDownLatch.countDown();
-                continue;
+    private void postRun(Object[] events, int from, int to, Class<?> eventClass) {
+        if (coalescing && coalescers.containsKey(eventClass)) {
+            for (int i = from; i < to; i++) {
+                if (!coalesced(events[i], eventClass)) {
+                    postNow(events[i]);
+                }
+            }
+            return;
+        }
+
+        boolean type = TypeEvent.class.isAssignableFrom(eventClass);
+        Monitoring monitoring = this.monitoring;
+        if (monitoring == null) {
+            chain(eventClass, null).postAll(events, from, to, type);
+            return;
+        }
+
+        Object[] tokens = new Object[to - from];
+        for (int i = from; i < to; i++) {
+            tokens[i - from] = monitoring.monitor.postStarted(events[i]);
+        }
+        ListenerChain chain = chain(eventClass, monitoring);
+        try {
+            chain.postAll(events, from, to, type);
+        } finally {
+            for (int i = from; i < to; i++) {
+                monitoring.monitor.postFinished(tokens[i - from], events[i], chain.listeners().length, isCanceled(events[i]));
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> postAsync(Object event) {
+        return startAsync(event, false).future();
+    }
+
+    /**
+     * Posts the event asynchronously and waits for the listeners at most for the timeout.
+     * <p>
+     * Unlike an awaited {@link EventSystem#post(Object, boolean, boolean)}, a stuck listener can't block the calling
+     * thread for longer than the timeout. The listeners which haven't finished by then keep running.
+     * An interrupt ends the wait like the timeout, keeping the interrupt status of the thread.
+     *
+     * @param event   the event to post
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return whether the post completed, its cancellation status and the unfinished listeners
+     */
+    public AsyncPostResult postAsync(Object event, long timeout, TimeUnit unit) {
+        AsyncDispatch dispatch = startAsync(event, true);
+        try {
+            return new AsyncPostResult(true, dispatch.future().get(timeout, unit), Collections.emptyList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException ignored) {
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+        return new AsyncPostResult(false, isCanceled(event), dispatch.unfinished());
+    }
+
+    /**
+     * @param tracked whether the unfinished listeners should be known
+     */
+    private AsyncDispatch startAsync(Object event, boolean tracked) {
+        Monitoring monitoring = this.monitoring;
+        if (monitoring == null) {
+            return startAsync(event, chain(event, null).listeners(), tracked);
+        }
+
+        Object token = monitoring.monitor.postStarted(event);
+        Listener[] listeners = chain(event, monitoring).listeners();
+        AsyncDispatch dispatch = startAsync(event, listeners, tracked);
+        monitorCompletion(dispatch, monitoring, token, event, listeners);
+        return dispatch;
+    }
+
+    /**
+     * Reports the end of an asynchronous post to the monitor once its last listener is done.
+     */
+    private static void monitorCompletion(AsyncDispatch dispatch, Monitoring monitoring, @Nullable Object token, Object event, Listener[] listeners) {
+        dispatch.future().whenComplete((canceled, failure) ->
+                monitoring.monitor.postFinished(token, event, listeners.length, canceled != null && canceled));
+    }
+
+    private AsyncDispatch startAsync(Object event, Listener[] listeners, boolean tracked) {
+        return AsyncDispatch.start(executorService, event, listeners, tiered, parallelism, tracked, watchdog);
+    }
+
+    /**
+     * Posts the event asynchronously, after all events previously posted with an equal key.
+     * <p>
+     * Every key belongs to one of a fixed number of stripes, one per processor. The events of a stripe are posted
+     * one after another on the executor, in the order they arrived, with the listeners called synchronously in
+     * priority order. Events of different stripes run in parallel. This way, listeners receive the events of one
+     * entity in order without having to lock.
+     *
+     * @param event the event to post
+     * @param key   the key of the event stream, e.g. the entity the event is about
+     * @return a future completed with the cancellation status after the event has been posted
+     */
+    public CompletableFuture<Boolean> postPartitioned(Object event, Object key) {
+        PartitionedDispatch partitions = this.partitions;
+        if (partitions == null) {
+            synchronized (this) {
+                partitions = this.partitions;
+                if (partitions == null) {
+                    this.partitions = partitions = new PartitionedDispatch(executorService, AsyncDispatch.PARALLELISM, this::post);
+                }
             }
+        }
+        return partitions.post(event, key);
+    }
+
+    /**
+     * @param keyExtractor extracts the key of the event stream from the event
+     * @see EventSystem#postPartitioned(Object, Object)
+     */
+    public <E> CompletableFuture<Boolean> postPartitioned(E event, Function<? super E, ?> keyExtractor) {
+        return postPartitioned(event, keyExtractor.apply(event));
+    }
+
+    /**
+     * Coalesces the events of the class, keeping only the latest event per key until the next flush.
+     *
+     * @see EventSystem#coalesce(Class, Function, BinaryOperator)
+     */
+    public <E> void coalesce(Class<E> eventClass, Function<? super E, ?> keyExtractor) {
+        setCoalescer(eventClass, new Coalescer(keyExtractor, null));
+    }
+
+    /**
+     * Coalesces the events of the class until the next {@link EventSystem#flush()}.
+     * <p>
+     * Posting an event of the class doesn't call any listener; it is merged with the pending event of the same key
+     * and {@link EventSystem#post} returns false. The flush posts one event per key, in the order the keys first
+     * arrived, so the listeners get called once per distinct key no matter how often the events are posted.
+     * This applies to the exact event class only and replaces a previous coalescing of it, dropping its pending
+     * events.
+     *
+     * @param eventClass   the class of the events to coalesce
+     * @param keyExtractor extracts the key, e.g. the entity an update is about
+     * @param merger       combines the pending event with a new one
+     */
+    public <E> void coalesce(Class<E> eventClass, Function<? super E, ?> keyExtractor, BinaryOperator<E> merger) {
+        setCoalescer(eventClass, new Coalescer(keyExtractor, merger));
+    }
+
+    private void setCoalescer(Class<?> eventClass, Coalescer coalescer) {
+        Coalescer replaced;
+        synchronized (coalescers) {
+            replaced = coalescers.put(eventClass, coalescer);
+            coalescing = true;
+        }
+
+        if (replaced != null) {
+            replaced.close(null);
+        }
+    }
+
+    /**
+     * Stops coalescing the events of the class after flushing its pending events.
+     * Events posted while it stops are either part of the flush or posted right away.
+     *
+     * @param eventClass the class of the events
+     */
+    public void stopCoalescing(Class<?> eventClass) {
+        Coalescer coalescer;
+        synchronized (coalescers) {
+            coalescer = coalescers.remove(eventClass);
+            coalescing = !coalescers.isEmpty();
+        }
+
+        if (coalescer != null) {
+            coalescer.close(this::postNow);
+        }
+    }
+
+    /**
+     * Posts the pending events of every coalesced event class on the calling thread.
+     */
+    public void flush() {
+        for (Coalescer coalescer : coalescers.values()) {
+            coalescer.flush(this::postNow);
+        }
+    }
+
+    /**
+     * Posts the pending events of the coalesced event class on the calling thread.
+     *
+     * @param eventClass the class of the events
+     */
+    public void flush(Class<?> eventClass) {
+        Coalescer coalescer = coalescers.get(eventClass);
+        if (coalescer != null) {
+            coalescer.flush(this::postNow);
+        }
+    }
+
+    private void postNow(Object event) {
+        dispatch(event, false, true);
+    }
+
+    /**
+     * Defers the event to the next {@link EventSystem#flushDeferred(Stage) flush} of {@link Stage#POST}.
+     *
+     * @param event the event to post later
+     * @see EventSystem#postDeferred(Object, Stage)
+     */
+    public void postDeferred(Object event) {
+        postDeferred(event, Stage.POST);
+    }
+
+    /**
+     * Defers the event to the next flush of the stage, e.g. the start or the end of a tick.
+     *
+     * @param event the event to post later
+     * @param stage the stage which posts the event
+     */
+    public void postDeferred(Object event, Stage stage) {
+        deferred[stage.ordinal()].add(event);
+    }
+
+    /**
+     * Posts the events deferred to the stage on the calling thread, batched by their event class.
+     * <p>
+     * The listener chain of every event class is looked up once per flush and then walked for all of its events.
+     * The classes are flushed in the order their first event was deferred, and the events of one class in the order
+     * they were deferred. Events of different classes are not interleaved, so an event may reach its listeners before
+     * an event of another class that was deferred earlier. Events deferred while flushing, e.g. by a listener, wait
+     * for the next flush of their stage. Deferred events are never coalesced.
+     * <p>
+     * A throwing listener doesn't stop the flush; the first exception is rethrown afterward with the later ones
+     * attached as suppressed exceptions.
+     *
+     * @param stage the stage to flush, e.g. {@link Stage#PRE} at the start and {@link Stage#POST} at the end of a tick
+     */
+    public void flushDeferred(Stage stage) {
+        Throwable failure = null;
+        for (Map.Entry<Class<?>, List<Object>> batch : deferred[stage.ordinal()].drain().entrySet()) {
+            failure = postBatch(batch.getKey(), batch.getValue(), failure);
+        }
 
-            executorService.submit(() -> {
-                listener.invoke(event);
-                countDownLatch.countDown();
-            });
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
         }
+    }
 
-        if (await) {
+    /**
+     * @return the first failure
+     */
+    @Nullable
+    private Throwable postBatch(Class<?> eventClass, List<Object> events, @Nullable Throwable failure) {
+        Monitoring monitoring = this.monitoring;
+        ListenerChain chain = chain(eventClass, monitoring);
+        if (chain.isEmpty() && monitoring == null) {
+            return failure;
+        }
+
+        for (Object event : events) {
+            Object token = monitoring == null ? null : monitoring.monitor.postStarted(event);
+            boolean type = event instanceof TypeEvent;
+            ListenerChain eventChain = type && !chain.isEmpty() ? chain.forType(((TypeEvent) event).getType()) : chain;
             try {
-                countDownLatch.await(); //the event system waits here until all listeners are executed so that the cancellation info is accurate
-            } catch (InterruptedException e) {
-                return true;
+                if (compiled || hierarchical) {
+                    eventChain.post(event, type);
+                } else {
+                    postSynchronous(event, eventChain, type);
+                }
+            } catch (RuntimeException | Error e) {
+                if (failure == null) {
+                    failure = e;
+                } else if (failure != e) {
+                    failure.addSuppressed(e);
+                }
+            } finally {
+                if (monitoring != null) {
+                    monitoring.monitor.postFinished(token, event, eventChain.listeners().length, isCanceled(event));
+                }
+            }
+        }
+        return failure;
+    }
+
+    private ListenerChain hierarchy(Class<?> eventClass) {
+        Flattened slot = hierarchy.get(eventClass);
+        ListenerChain chain = slot.chain;
+        if (chain != null) {
+            return chain;
+        }
+
+        synchronized (flattened) {
+            chain = slot.chain;
+            if (chain == null) {
+                slot.chain = chain = flatten(eventClass);
+                flattened.put(eventClass, Boolean.TRUE);
+            }
+            return chain;
+        }
+    }
+
+    private ListenerChain flatten(Class<?> eventClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> current = eventClass; current != null; current = current.getSuperclass()) {
+            types.add(current);
+        }
+        for (Class<?> current = eventClass; current != null; current = current.getSuperclass()) {
+            collectInterfaces(current, types);
+        }
+
+        List<Listener> merged = new ArrayList<>();
+        for (Class<?> type : types) {
+            ListenerChain typeListeners = listeners.get(type);
+            if (typeListeners != null) {
+                Collections.addAll(merged, typeListeners.listeners());
+            }
+        }
+        merged.sort(Listener::compareTo); // stable, so listeners of more specific types come first on equal priorities
+        return ListenerChain.of(merged.toArray(new Listener[0]));
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> types) {
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (types.add(anInterface)) {
+                collectInterfaces(anInterface, types);
+            }
+        }
+    }
+
+    /**
+     * Drops every chain which includes the listeners of the target.
+     */
+    private void invalidate(Class<?> target) {
+        synchronized (flattened) {
+            Iterator<Class<?>> iterator = flattened.keySet().iterator();
+            while (iterator.hasNext()) {
+                Class<?> eventClass = iterator.next();
+                if (target.isAssignableFrom(eventClass)) {
+                    hierarchy.get(eventClass).chain = null;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void postSynchronous(Object event, ListenerChain chain, boolean type) {
+        Listener[] listeners = chain.listeners();
+        int[] live = chain.live();
+        FilterGroup[] groups = chain.groups();
+        int[] groupIndices = chain.groupIndices();
+        Cancelable cancelable = live != null && event instanceof Cancelable ? (Cancelable) event : null;
+        long tested = 0;
+        long passed = 0;
+        for (int i = 0; i < listeners.length; i++) {
+            if (cancelable != null && cancelable.isCanceled() && (i = live[i]) == listeners.length) {
+                return;
+            }
+
+            Listener listener = listeners[i];
+            if (type && !listener.filterType(((TypeEvent) event).getType())) {
+                continue;
+            }
+            int group = groupIndices == null ? -1 : groupIndices[i];
+            if (group >= Long.SIZE) {
+                if (!groups[group].test(event)) {
+                    continue;
+                }
+            } else if (group >= 0) {
+                long bit = 1L << group;
+                if ((tested & bit) == 0) {
+                    tested |= bit;
+                    if (groups[group].test(event)) {
+                        passed |= bit;
+                    }
+                }
+                if ((passed & bit) == 0) {
+                    continue;
+                }
             }
+            if (!listener.filter(event)) {
+                continue;
+            }
+
+            listener.invoke(event);
+        }
+    }
+
+    /**
+     * @return true if the waiting thread got interrupted
+     */
+    private boolean postAsynchronous(Object event, boolean await, Listener[] listeners) {
+        CompletableFuture<Boolean> future = startAsync(event, listeners, false).future();
+        if (!await) {
+            return false;
+        }
+
+        long timeoutNanos = awaitTimeoutNanos;
+        try {
+            //the event system waits here until all listeners are executed so that the cancellation info is accurate
+            if (timeoutNanos > 0) {
+                future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } else {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (TimeoutException ignored) {
+        } catch (ExecutionException e) {
+            throw rethrow(e);
         }
         return false;
     }
 
+    private static RuntimeException rethrow(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+    }
+
     /**
      * Will post the event but in reversed order.
      * That means events with a lower priority will receive the event earlier than those with high priority.
@@ -114,14 +719,15 @@ public class EventSystem implements IEventSystem {
      */
     @Deprecated
     public void postReversed(Object event) {
-        final List<Listener> eventListeners = listeners.get(event.getClass());
-        if (eventListeners == null || eventListeners.isEmpty()) {
+        final ListenerChain chain = listeners.get(event.getClass());
+        if (chain == null) {
             return;
         }
 
         boolean type = event instanceof TypeEvent;
-        for (int i = eventListeners.size() - 1; i >= 0; i--) {
-            Listener listener = eventListeners.get(i);
+        Listener[] eventListeners = chain.listeners();
+        for (int i = eventListeners.length - 1; i >= 0; i--) {
+            Listener listener = eventListeners[i];
             if (notFiltered(event, listener, type)) {
                 continue;
             }
@@ -132,148 +738,375 @@ public class EventSystem implements IEventSystem {
 
     @Override
     public void register(Object... objects) {
+        List<Listener<?>> collected = new ArrayList<>();
         for (Object object : objects) {
-            register(object);
+            collect(object, collected);
         }
+        listeners.registerAll(collected);
     }
 
     @Override
     public void register(Object object) {
-        for (Method method : object.getClass().getMethods()) {
-            register(method, object);
-        }
+        List<Listener<?>> collected = new ArrayList<>();
+        collect(object, collected);
+        listeners.registerAll(collected);
     }
 
     @Override
     public boolean register(Method method, Object provider) {
-        if (isNotValid(method)) {
+        ReflectiveRegistrar.Descriptor descriptor = ReflectiveRegistrar.Descriptor.parse(method);
+        if (descriptor == null) {
             return false;
         }
 
-        method.setAccessible(true);
-
-        Class<?> eventClass = method.getParameterTypes()[0];
-
-        byte priority = DefaultPriorities.NORMAL;
-        if (method.isAnnotationPresent(ListenerPriority.class)) {
-            priority = method.getAnnotation(ListenerPriority.class).priority();
-        }
-
-        Class<?> type = null;
-        if (method.isAnnotationPresent(EventType.class)) {
-            type = method.getAnnotation(EventType.class).typeFilter();
-        }
-
-        register(new MethodListener<>(eventClass, method, provider, priority, type), eventClass);
+        register(new MethodListener<>(descriptor.eventClass, descriptor.name, provider, descriptor.priority, descriptor.type,
+                descriptor.ignoreCanceled, descriptor.invokerFactory.apply(provider)));
         return true;
     }
 
     @Override
     public void register(Listener<?> listener) {
-        register(listener, listener.getTarget());
+        listeners.register(listener.getTarget(), listener);
     }
 
-    private void register(Listener<?> listener, Class<?> target) {
-        List<Listener> pairs = listeners.computeIfAbsent(target, e -> new CopyOnWriteArrayList<>());
-
-        if (pairs.isEmpty()) {
-            pairs.add(listener);
-            return;
-        }
-
-        int insertionIndex = Collections.binarySearch(pairs, listener, Listener::compareTo);
-        if (insertionIndex < 0) {
-            insertionIndex = ~insertionIndex;
-        } // we could loop here until we have the last position on duplicated listener priorities
-        // but I consider it as a useless task since it changes nothing and could take some time if we have a lot of listeners
-        // of one priority
-        pairs.add(insertionIndex, listener);
+    @Override
+    public void registerAll(Collection<? extends Listener<?>> listeners) {
+        this.listeners.registerAll(listeners);
     }
 
     @Override
     public void deregister(Object... objects) {
+        List<Listener<?>> collected = new ArrayList<>();
         for (Object object : objects) {
-            deregister(object);
+            collect(object, collected);
         }
+        listeners.deregisterAll(collected);
     }
 
     @Override
     public void deregister(Object object) {
-        for (Method method : object.getClass().getMethods()) {
-            deregister(method, object);
-        }
+        List<Listener<?>> collected = new ArrayList<>();
+        collect(object, collected);
+        listeners.deregisterAll(collected);
+    }
+
+    /**
+     * Collects the annotated listeners of the object, so they can be registered or deregistered in bulk.
+     */
+    private static void collect(Object object, List<Listener<?>> collected) {
+        Registrars.of(object.getClass()).collect(object, new ListenerRegistrar.Collector() {
+            @Override
+            public <E> void collect(Object provider, Class<E> eventClass, String name, byte priority, @Nullable Class<?> type, boolean ignoreCanceled, Consumer<E> invoker) {
+                collected.add(new MethodListener<>(eventClass, name, provider, priority, type, ignoreCanceled, invoker));
+            }
+        });
     }
 
     @Override
     public boolean deregister(Method method, Object provider) {
-        if (isNotValid(method)) {
+        if (!ReflectiveRegistrar.isListener(method)) {
             return false;
         }
 
         Class<?> eventClass = method.getParameterTypes()[0];
-        return deregister(eventClass, new MethodListener<>(eventClass, method, provider, DefaultPriorities.NORMAL, null));
+        return listeners.deregister(eventClass, listener -> listener instanceof MethodListener
+                && ((MethodListener<?>) listener).matches(eventClass, method.getName(), provider));
     }
 
     @Override
     public boolean deregister(Listener<?> listener) {
-        return deregister(listener.getTarget(), listener);
+        return listeners.deregister(listener.getTarget(), listener::equals);
     }
 
     @Override
-    public void deregisterAll(Class<?> clazz) {
-        List<Listener> listenerList = listeners.get(clazz);
-        if (listenerList == null) {
-            return;
-        }
+    public void deregisterAll(Collection<? extends Listener<?>> listeners) {
+        this.listeners.deregisterAll(listeners);
+    }
 
-        listenerList.clear();
-        listeners.remove(clazz);
+    @Override
+    public void deregisterAll(Class<?> clazz) {
+        listeners.deregisterAll(clazz);
     }
 
     @Override
     public boolean hasListeners(Class<?> eventClass) {
-        List<Listener> eventListeners = listeners.get(eventClass);
-        return eventListeners != null && !eventListeners.isEmpty();
+        return listeners.hasListeners(eventClass);
     }
 
     @Override
     public void scan(@Nullable Consumer<Class<?>> eventClassScanner, @Nullable BiConsumer<Class<?>, Listener> listenerScanner) {
-        Scanner.scanListeners(listeners, eventClassScanner, listenerScanner);
+        listeners.scan(eventClassScanner, listenerScanner);
+    }
+
+    static boolean notFiltered(Object event, Listener listener, boolean type) {
+        FilterGroup group = listener.getFilterGroup();
+        return type && !listener.filterType(((TypeEvent) event).getType()) || group != null && !group.test(event)
+                || !listener.filter(event);
+    }
+
+    /**
+     * Enables or disables the compiled dispatch for synchronous posts.
+     * <p>
+     * The immutable chain of every event class knows which of its listeners don't override {@link Listener#filter}
+     * and {@link Listener#filterType}. In compiled mode, those methods aren't called for them at all.
+     * This pays off for event classes with many listeners.
+     *
+     * @param compiled true to use compiled chains, false to call the filters of every listener
+     */
+    public void setCompiledDispatch(boolean compiled) {
+        this.compiled = compiled;
+    }
+
+    /**
+     * @return true if synchronous posts use compiled chains
+     * @see EventSystem#setCompiledDispatch(boolean)
+     */
+    public boolean isCompiledDispatch() {
+        return compiled;
+    }
+
+    /**
+     * Enables or disables the dispatch along the event class hierarchy.
+     * <p>
+     * When enabled, listeners registered for a super class or an interface of the posted event get invoked as well,
+     * sorted by priority together with the listeners of the event class itself. The merged chain of every event class
+     * is built on its first post, so posting stays one lookup and one array walk no matter how deep the hierarchy is.
+     * Registering or deregistering a listener only drops the chains of the sub types of its target.
+     * <p>
+     * {@link EventSystem#hasListeners(Class)}, {@link EventSystem#deregisterAll(Class)} and
+     * {@link EventSystem#postReversed(Object)} keep working on the exact event class.
+     *
+     * @param hierarchical true to include the listeners of super types
+     */
+    public void setHierarchyDispatch(boolean hierarchical) {
+        this.hierarchical = hierarchical;
+    }
+
+    /**
+     * @return true if listeners of super types receive the events of their sub types
+     * @see EventSystem#setHierarchyDispatch(boolean)
+     */
+    public boolean isHierarchyDispatch() {
+        return hierarchical;
+    }
+
+    /**
+     * Enables or disables the tiered asynchronous dispatch.
+     * <p>
+     * When enabled, asynchronous posts run the listeners of the same priority in parallel, but only start the next
+     * lower priority once all listeners of the higher one are done. As soon as a {@link Cancelable} event is canceled,
+     * no further priority gets started, just like a synchronous post with {@link ccetl.flashlight.listener.Canceler}s.
+     *
+     * @param tiered true to respect the priorities in asynchronous posts
+     */
+    public void setTieredAsyncDispatch(boolean tiered) {
+        this.tiered = tiered;
+    }
+
+    /**
+     * @return true if asynchronous posts run one priority after another
+     * @see EventSystem#setTieredAsyncDispatch(boolean)
+     */
+    public boolean isTieredAsyncDispatch() {
+        return tiered;
+    }
+
+    /**
+     * Starts recording the invocations and latencies of every listener, dropping the statistics recorded before.
+     * <p>
+     * Every invocation is counted, but only every n-th one is timed, which keeps the overhead low for cheap listeners.
+     * Recording doesn't allocate. The listeners get wrapped once per chain, so posts without instrumentation run the
+     * plain listeners and pay nothing but one volatile read. {@link EventSystem#postReversed(Object)} isn't recorded.
+     *
+     * @param samplingInterval time every n-th invocation, 1 to time all of them
+     * @see EventSystem#scanStatistics(BiConsumer)
+     */
+    public void enableInstrumentation(int samplingInterval) {
+        Instrumentation instrumentation = new Instrumentation(samplingInterval);
+        statistics = instrumentation;
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Stops recording; the statistics recorded so far stay readable until the instrumentation gets enabled again.
+     */
+    public void disableInstrumentation() {
+        instrumentation = null;
+    }
+
+    /**
+     * @return true if the listeners are instrumented
+     * @see EventSystem#enableInstrumentation(int)
+     */
+    public boolean isInstrumented() {
+        return instrumentation != null;
     }
 
-    private boolean deregister(Class<?> event, Listener<?> listener) {
-        List<Listener> pairs = this.listeners.get(event);
-        if (pairs != null) {
-            return pairs.removeIf(p -> p.equals(listener));
+    /**
+     * Passes a snapshot of the statistics of every registered listener which got invoked while the instrumentation was
+     * on. The event class of a listener is its {@link Listener#getTarget() target}.
+     *
+     * @param scanner receives every listener with its statistics
+     */
+    public void scanStatistics(BiConsumer<Listener, ListenerStatistics> scanner) {
+        Instrumentation statistics = this.statistics;
+        if (statistics == null) {
+            return;
         }
-        return false;
+
+        listeners.scan(null, (eventClass, listener) -> {
+            ListenerStatistics listenerStatistics = statistics.statistics(listener);
+            if (listenerStatistics != null) {
+                scanner.accept(listener, listenerStatistics);
+            }
+        });
     }
 
-    private boolean notFiltered(Object event, Listener listener, boolean type) {
-        return type && !listener.filterType(((TypeEvent) event).getType()) || !listener.filter(event);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Monitored listeners are wrapped once per chain, like instrumented ones, and posts to the partitions, the queue
+     * and the flushes are monitored as well. {@link EventSystem#postReversed(Object)} isn't monitored.
+     */
+    @Override
+    public void setMonitor(@Nullable DispatchMonitor monitor) {
+        monitoring = Monitoring.of(monitor);
+    }
+
+    /**
+     * Limits how long an awaited {@link EventSystem#post(Object, boolean, boolean)} waits for the listeners.
+     * <p>
+     * Once the timeout expired, the post returns the cancellation status at that moment while the remaining listeners
+     * keep running. {@link EventSystem#postAsync(Object, long, TimeUnit)} tells which listeners didn't finish.
+     *
+     * @param timeout the maximum time to wait, 0 to wait until all listeners finished
+     * @param unit    the unit of the timeout
+     */
+    public void setAwaitTimeout(long timeout, TimeUnit unit) {
+        awaitTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Starts a watchdog thread reporting asynchronous listeners which run longer than their deadline.
+     * <p>
+     * Asynchronous posts record when each listener starts and finishes while the watchdog runs, and the watchdog
+     * checks them every quarter of the shortest deadline, but at most once per millisecond. Every invocation over its
+     * deadline is reported once, while the listener is still running. A listener exceeding its deadline too often gets
+     * quarantined: it is deregistered and the handler is told so; registering it again lifts the quarantine.
+     * Synchronous posts aren't watched, since the calling thread notices a slow listener itself.
+     *
+     * @param deadline        the deadline of the listeners of event classes without one of their own, 0 for none
+     * @param unit            the unit of the deadline
+     * @param handler         gets told about every slow listener on the watchdog thread
+     * @param quarantineAfter the number of overruns after which a listener gets quarantined, 0 to never quarantine
+     * @throws IllegalStateException if the watchdog is already running
+     * @see EventSystem#setDeadline(Class, long, TimeUnit)
+     */
+    public synchronized void startWatchdog(long deadline, TimeUnit unit, SlowListenerHandler handler, int quarantineAfter) {
+        if (watchdog != null) {
+            throw new IllegalStateException("The watchdog is already running");
+        }
+        watchdog = new Watchdog(unit.toNanos(deadline), deadlines, handler, quarantineAfter,
+                listener -> deregister((Listener<?>) listener));
     }
 
-    private boolean isNotValid(Method method) {
-        return !method.isAnnotationPresent(EventListener.class) || method.getParameterCount() != 1;
+    /**
+     * Stops the watchdog thread; asynchronous posts aren't tracked anymore.
+     */
+    public synchronized void stopWatchdog() {
+        if (watchdog != null) {
+            watchdog.shutDown();
+            watchdog = null;
+        }
+    }
+
+    /**
+     * Sets the deadline of the asynchronous listeners of the exact event class, overriding the one of the watchdog.
+     * Deadlines shorter than the ones known when the watchdog started may be reported late.
+     *
+     * @param eventClass the event class
+     * @param deadline   the deadline, 0 for none
+     * @param unit       the unit of the deadline
+     */
+    public void setDeadline(Class<?> eventClass, long deadline, TimeUnit unit) {
+        deadlines.put(eventClass, unit.toNanos(deadline));
+    }
+
+    /**
+     * Starts dedicated dispatcher threads for {@link EventSystem#enqueue(Object)}.
+     * <p>
+     * Enqueueing only claims a slot of a lock-free queue, so producers can hand off events within nanoseconds.
+     * The dispatcher threads drain the queue in batches and post every event synchronously, in priority order.
+     * With more than one dispatcher thread, events may be posted in a different order than they were enqueued.
+     *
+     * @param capacity    the maximum number of waiting events, rounded up to a power of two of at least 2
+     * @param dispatchers the number of dispatcher threads
+     * @param policy      what to do with events enqueued while the queue is full
+     * @throws IllegalStateException if the queue is already running
+     */
+    public synchronized void startQueue(int capacity, int dispatchers, QueueFullPolicy policy) {
+        if (queue != null) {
+            throw new IllegalStateException("The queue is already running");
+        }
+        queue = new EventQueue(capacity, dispatchers, policy, this::post);
+    }
+
+    /**
+     * Stops the dispatcher threads; events still waiting in the queue are discarded.
+     */
+    public synchronized void stopQueue() {
+        if (queue != null) {
+            queue.shutDown();
+            queue = null;
+        }
+    }
+
+    /**
+     * Hands the event to the dispatcher threads and returns immediately.
+     * Listeners must not rely on running on the thread of the producer.
+     *
+     * @param event the event to post
+     * @return false if the event got dropped because the queue is full or stopped
+     * @throws IllegalStateException if the queue wasn't started
+     * @see EventSystem#startQueue(int, int, QueueFullPolicy)
+     */
+    public boolean enqueue(Object event) {
+        EventQueue queue = this.queue;
+        if (queue == null) {
+            throw new IllegalStateException("The queue isn't running");
+        }
+        return queue.enqueue(event);
     }
 
     /**
      * Calls {@link ThreadPoolExecutor#prestartAllCoreThreads()} to pre start all always idling threads.
      * This can avoid lagging on the first {@link EventSystem#post}.
      *
-     * @return the number of threads started
+     * @return the number of threads started, always 0 if the executor isn't a {@link ThreadPoolExecutor}
      */
     public int preStart() {
-        return executorService.prestartAllCoreThreads();
+        if (executorService instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executorService).prestartAllCoreThreads();
+        }
+        return 0;
     }
 
     /**
-     * Calls {@link ExecutorService#shutdownNow()} to stop all executing tasks.
+     * Calls {@link ExecutorService#shutdownNow()} to stop all executing tasks and stops the queue and the watchdog.
      *
      * @return a list of the tasks that have not commenced execution
      */
     public List<Runnable> shutDown() {
+        stopQueue();
+        stopWatchdog();
         return executorService.shutdownNow();
     }
 
+    private static final class Flattened {
+
+        @Nullable
+        private volatile ListenerChain chain;
+
+    }
+
 }
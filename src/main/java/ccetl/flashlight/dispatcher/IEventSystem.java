@@ -4,6 +4,9 @@ import ccetl.flashlight.annotation.Nullable;
 import ccetl.flashlight.listener.Listener;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -22,6 +25,7 @@ public interface IEventSystem {
      * @param asynchronous Determines whether the listeners get executed synchronous (false) or asynchronous (true);
      *                     asynchronously ignores the priority and executes the invoker on multiple threads, so
      *                     your event and listener for asynchronous execution have to be thread save.
+     *                     {@link EventSystem#setTieredAsyncDispatch(boolean)} keeps the order between priorities.
      * @param await        Waits until all listeners have been executed before continuing with the thread calling this
      *                     method. This doesn't matter if you run the execution synchronous since you already run the
      *                     listeners on the calling thread this way. It should always be true when you need to know the
@@ -30,6 +34,49 @@ public interface IEventSystem {
      */
     boolean post(Object event, boolean asynchronous, boolean await);
 
+    /**
+     * Posts a batch of events synchronously, looking up the listeners once per run of events of the same class.
+     * <p>
+     * The listeners are walked one after another, each receiving all events of the run before the next listener
+     * starts, so every listener sees the events in order but a lower priority listener sees the first event only
+     * after the higher ones saw the last. A {@link ccetl.flashlight.listener.BatchListener} receives the events it
+     * accepts in one call.
+     * <p>
+     * The default implementation posts the events one by one.
+     *
+     * @param events the events to post
+     */
+    default <E> void postAll(Collection<? extends E> events) {
+        for (E event : events) {
+            post(event);
+        }
+    }
+
+    /**
+     * @param events the events to post
+     * @see IEventSystem#postAll(Collection)
+     */
+    default <E> void postAll(E[] events) {
+        postAll(Arrays.asList(events));
+    }
+
+    /**
+     * Executes the listeners asynchronously without blocking the calling thread.
+     * <p>
+     * Like {@link IEventSystem#post(Object, boolean, boolean)}, this ignores the priority between listeners running on
+     * different threads unless {@link EventSystem#setTieredAsyncDispatch(boolean)} is enabled, so the event and the
+     * listeners have to be thread safe. A throwing listener doesn't stop the
+     * others; the future completes exceptionally with its exception once all listeners ran.
+     * <p>
+     * The default implementation runs {@link IEventSystem#post(Object)} on the common pool.
+     *
+     * @param event the event to post
+     * @return a future completed with the cancellation status after all listeners have been executed
+     */
+    default CompletableFuture<Boolean> postAsync(Object event) {
+        return CompletableFuture.supplyAsync(() -> post(event));
+    }
+
     /**
      * This method will register all annotated listeners from the given objects.
      *
@@ -54,12 +101,27 @@ public interface IEventSystem {
     /**
      * Registers a listener.
      * <p>
-     * This method is not thread safe.
+     * The listeners of every event class are stored as an immutable snapshot, which gets replaced atomically;
+     * a post running at the same time keeps using the old snapshot.
      *
      * @param listener target listener
      */
     void register(Listener<?> listener);
 
+    /**
+     * Registers all listeners at once.
+     * <p>
+     * Every affected event class gets exactly one new snapshot, so this is much cheaper than registering the
+     * listeners one by one. The default implementation registers them one by one.
+     *
+     * @param listeners target listeners
+     */
+    default void registerAll(Collection<? extends Listener<?>> listeners) {
+        for (Listener<?> listener : listeners) {
+            register(listener);
+        }
+    }
+
     /**
      * This method will deregister all annotated listeners from the given objects.
      *
@@ -87,6 +149,18 @@ public interface IEventSystem {
      */
     boolean deregister(Listener<?> listener);
 
+    /**
+     * Deregisters all listeners at once, creating at most one new snapshot per event class.
+     * The default implementation deregisters them one by one.
+     *
+     * @param listeners target listeners
+     */
+    default void deregisterAll(Collection<? extends Listener<?>> listeners) {
+        for (Listener<?> listener : listeners) {
+            deregister(listener);
+        }
+    }
+
     /**
      * This method will deregister all listeners for the specified event.
      *
@@ -116,4 +190,15 @@ public interface IEventSystem {
     @SuppressWarnings("rawtypes")
     void scan(@Nullable Consumer<Class<?>> eventClassScanner, @Nullable BiConsumer<Class<?>, Listener> listenerScanner);
 
+    /**
+     * Sets the monitor observing the posts and, if it wants to, every listener invocation.
+     * Without a monitor, posting doesn't pay anything for monitoring but one volatile read.
+     *
+     * @param monitor the monitor or null to remove the current one
+     * @throws UnsupportedOperationException if the event system doesn't support monitoring
+     */
+    default void setMonitor(@Nullable DispatchMonitor monitor) {
+        throw new UnsupportedOperationException("Monitoring is not supported");
+    }
+
 }
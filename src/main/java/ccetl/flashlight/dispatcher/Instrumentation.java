@@ -0,0 +1,244 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.listener.BatchListener;
+import ccetl.flashlight.listener.FilterGroup;
+import ccetl.flashlight.listener.Listener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the invocations and latencies of listeners.
+ * <p>
+ * Chains get instrumented by wrapping their listeners, so the dispatch itself stays the same and an event system
+ * without instrumentation runs the plain listeners. The recorders outlive the wrappers, so a listener keeps its data
+ * when its chain gets rebuilt; they are dropped together with the listener. A batch counts as one invocation.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class Instrumentation implements ListenerChain.ListenerWrapper {
+
+    private final int samplingInterval;
+    private final Map<Listener, Recorder> recorders = new WeakHashMap<>();
+
+    /**
+     * @param samplingInterval time every n-th invocation, 1 to time all of them
+     */
+    Instrumentation(int samplingInterval) {
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("samplingInterval: " + samplingInterval);
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
+    @Override
+    public Listener wrap(Listener listener) {
+        Recorder recorder;
+        synchronized (recorders) {
+            recorder = recorders.computeIfAbsent(listener, key -> new Recorder(samplingInterval));
+        }
+        return listener instanceof BatchListener
+                ? new InstrumentedBatchListener(listener, recorder)
+                : new InstrumentedListener(listener, recorder);
+    }
+
+    /**
+     * @return the statistics of the listener or null if no instrumented chain included it yet
+     */
+    @Nullable
+    ListenerStatistics statistics(Listener listener) {
+        Recorder recorder;
+        synchronized (recorders) {
+            recorder = recorders.get(listener);
+        }
+        return recorder == null ? null : recorder.snapshot();
+    }
+
+    /**
+     * Counts invocations and keeps a log-linear histogram of the sampled latencies: eight buckets per power of two,
+     * latencies below eight nanoseconds in buckets of their own. Recording doesn't allocate.
+     */
+    private static final class Recorder {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final int samplingInterval;
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong sampledNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private Recorder(int samplingInterval) {
+            this.samplingInterval = samplingInterval;
+        }
+
+        /**
+         * Counts an invocation.
+         *
+         * @return true if the invocation should be timed
+         */
+        private boolean count() {
+            long invocation = invocations.getAndIncrement();
+            return samplingInterval == 1 || invocation % samplingInterval == 0;
+        }
+
+        private void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+
+            sampledNanos.addAndGet(nanos);
+            buckets.incrementAndGet(bucket(nanos));
+            long max;
+            do {
+                max = maxNanos.get();
+            } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+        }
+
+        private static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) {
+                return (int) nanos;
+            }
+
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @return the highest latency which falls into the bucket
+         */
+        private static long highestOf(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+            return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        private ListenerStatistics snapshot() {
+            long[] counts = new long[BUCKETS];
+            long samples = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                samples += counts[i] = buckets.get(i);
+            }
+
+            long max = maxNanos.get();
+            return new ListenerStatistics(invocations.get(), samples, sampledNanos.get(),
+                    percentile(counts, samples, 0.5, max), percentile(counts, samples, 0.99, max), max);
+        }
+
+        private static long percentile(long[] counts, long samples, double percentile, long max) {
+            long rank = (long) Math.ceil(samples * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(highestOf(i), max);
+                }
+            }
+            return 0;
+        }
+
+    }
+
+    private static class InstrumentedListener implements Listener, ListenerChain.Delegating {
+
+        final Listener listener;
+        final Recorder recorder;
+
+        private InstrumentedListener(Listener listener, Recorder recorder) {
+            this.listener = listener;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void invoke(Object event) {
+            if (!recorder.count()) {
+                listener.invoke(event);
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                listener.invoke(event);
+            } finally {
+                recorder.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public Listener delegate() {
+            return listener;
+        }
+
+        @Override
+        public Class getTarget() {
+            return listener.getTarget();
+        }
+
+        @Override
+        public byte getPriority() {
+            return listener.getPriority();
+        }
+
+        @Override
+        public boolean filter(Object event) {
+            return listener.filter(event);
+        }
+
+        @Override
+        public boolean filterType(Class eventClass) {
+            return listener.filterType(eventClass);
+        }
+
+        @Nullable
+        @Override
+        public Class<?> getTypeFilter() {
+            return listener.getTypeFilter();
+        }
+
+        @Override
+        public boolean ignoresCanceled() {
+            return listener.ignoresCanceled();
+        }
+
+        @Nullable
+        @Override
+        public FilterGroup getFilterGroup() {
+            return listener.getFilterGroup();
+        }
+
+    }
+
+    private static final class InstrumentedBatchListener extends InstrumentedListener implements BatchListener {
+
+        private InstrumentedBatchListener(Listener listener, Recorder recorder) {
+            super(listener, recorder);
+        }
+
+        @Override
+        public void invokeAll(List events) {
+            if (!recorder.count()) {
+                ((BatchListener) listener).invokeAll(events);
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                ((BatchListener) listener).invokeAll(events);
+            } finally {
+                recorder.record(System.nanoTime() - start);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.IntListener;
+
+/**
+ * Posts {@code int} values to {@link IntListener}s without boxing or allocating.
+ *
+ * @see PrimitiveChannel
+ */
+public final class IntEventChannel extends PrimitiveChannel<IntListener> {
+
+    public IntEventChannel() {
+        super(IntListener[]::new);
+    }
+
+    /**
+     * Posts the value to the listeners, in priority order, until one of them cancels it.
+     *
+     * @param value the value to post
+     * @return true if a listener canceled the post
+     */
+    public boolean post(int value) {
+        for (IntListener listener : listeners) {
+            if (listener.invoke(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,539 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.event.TypeEvent;
+import ccetl.flashlight.listener.BatchListener;
+import ccetl.flashlight.listener.FilterGroup;
+import ccetl.flashlight.listener.LambdaListener;
+import ccetl.flashlight.listener.Listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, compiled snapshot of the listeners of one event class, sorted by priority.
+ * <p>
+ * While compiling, every listener is checked for whether it actually filters anything, so the dispatch loop can skip
+ * the {@link Listener#filter} and {@link Listener#filterType} calls of listeners that only inherit the defaults.
+ * Changes never modify a chain but create a new one, so posting threads can walk the arrays without any locking.
+ * <p>
+ * Listeners declaring a {@link Listener#getTypeFilter()} are indexed by their type on the first post of a
+ * {@link TypeEvent}. A typed post then only walks the listeners of its type merged with the untyped ones.
+ * <p>
+ * Once a {@link Cancelable} event got canceled, a post jumps over the listeners which {@link Listener#ignoresCanceled()
+ * ignore canceled events} right to the next one which doesn't, or stops if there is none.
+ * <p>
+ * The distinct {@link FilterGroup}s of a chain get numbered. A post remembers in two bit masks which groups it tested
+ * and which ones passed, so every group is tested at most once; groups beyond the 64th are tested for each listener.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class ListenerChain {
+
+    static final ListenerChain EMPTY = new ListenerChain(new Listener[0], new byte[0]);
+
+    private static final byte FILTER = 1;
+    private static final byte TYPE = 1 << 1;
+    private static final byte GROUP = 1 << 2;
+
+    /**
+     * The classes declaring {@link Listener#filter} and {@link Listener#filterType} for a listener class.
+     */
+    private static final ClassValue<Class<?>[]> DECLARING_CLASSES = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            try {
+                return new Class<?>[]{
+                        type.getMethod("filter", Object.class).getDeclaringClass(),
+                        type.getMethod("filterType", Class.class).getDeclaringClass()
+                };
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final Listener[] listeners;
+    private final byte[] checks;
+    /**
+     * For every index, the index of the next listener which still wants canceled events, or the length of the chain.
+     * Null if no listener ignores canceled events.
+     */
+    @Nullable
+    private final int[] live;
+    /**
+     * The distinct filter groups of the listeners, null if no listener belongs to one.
+     */
+    @Nullable
+    private final FilterGroup[] groups;
+    /**
+     * For every index, the index of the group of the listener in {@link ListenerChain#groups} or -1.
+     */
+    @Nullable
+    private final int[] groupIndices;
+    /**
+     * The chains of the declared types, built lazily; racing threads build equal indices.
+     */
+    private volatile TypeIndex typeIndex;
+    /**
+     * This chain with wrapped listeners, built lazily for the latest wrapper.
+     */
+    @Nullable
+    private volatile Wrapped wrapped;
+
+    private ListenerChain(Listener[] listeners, byte[] checks) {
+        this.listeners = listeners;
+        this.checks = checks;
+        this.live = live(listeners);
+
+        Map<FilterGroup, Integer> groups = new HashMap<>();
+        int[] groupIndices = null;
+        for (int i = 0; i < listeners.length; i++) {
+            FilterGroup group = listeners[i].getFilterGroup();
+            if (group == null) {
+                if (groupIndices != null) {
+                    groupIndices[i] = -1;
+                }
+                continue;
+            }
+            if (groupIndices == null) {
+                groupIndices = new int[listeners.length];
+                Arrays.fill(groupIndices, 0, i, -1);
+            }
+            groupIndices[i] = groups.computeIfAbsent(group, key -> groups.size());
+        }
+        if (groupIndices == null) {
+            this.groups = null;
+            this.groupIndices = null;
+            return;
+        }
+
+        this.groups = new FilterGroup[groups.size()];
+        groups.forEach((group, index) -> this.groups[index] = group);
+        this.groupIndices = groupIndices;
+    }
+
+    @Nullable
+    private static int[] live(Listener[] listeners) {
+        boolean ignoring = false;
+        for (Listener listener : listeners) {
+            ignoring |= listener.ignoresCanceled();
+        }
+        if (!ignoring) {
+            return null;
+        }
+
+        int[] live = new int[listeners.length + 1];
+        live[listeners.length] = listeners.length;
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            live[i] = listeners[i].ignoresCanceled() ? live[i + 1] : i;
+        }
+        return live;
+    }
+
+    /**
+     * @param listeners listeners sorted by priority, the array is taken over
+     */
+    static ListenerChain of(Listener[] listeners) {
+        byte[] checks = new byte[listeners.length];
+        for (int i = 0; i < listeners.length; i++) {
+            checks[i] = checks(listeners[i]);
+        }
+        return new ListenerChain(listeners, checks);
+    }
+
+    /**
+     * @return a chain with the listener inserted behind the listeners of the same priority
+     */
+    ListenerChain with(Listener listener) {
+        int index = insertionIndex(listener, 0);
+        Listener[] listeners = new Listener[this.listeners.length + 1];
+        byte[] checks = new byte[listeners.length];
+        System.arraycopy(this.listeners, 0, listeners, 0, index);
+        System.arraycopy(this.checks, 0, checks, 0, index);
+        listeners[index] = listener;
+        checks[index] = checks(listener);
+        System.arraycopy(this.listeners, index, listeners, index + 1, this.listeners.length - index);
+        System.arraycopy(this.checks, index, checks, index + 1, this.checks.length - index);
+        return new ListenerChain(listeners, checks);
+    }
+
+    /**
+     * Merges all listeners into one new chain.
+     *
+     * @param added the listeners to insert, sorted by priority
+     */
+    ListenerChain withAll(List<Listener> added) {
+        Listener[] listeners = new Listener[this.listeners.length + added.size()];
+        byte[] checks = new byte[listeners.length];
+        int existing = 0;
+        int index = 0;
+        for (Listener listener : added) {
+            int end = insertionIndex(listener, existing);
+            System.arraycopy(this.listeners, existing, listeners, index, end - existing);
+            System.arraycopy(this.checks, existing, checks, index, end - existing);
+            index += end - existing;
+            existing = end;
+
+            listeners[index] = listener;
+            checks[index++] = checks(listener);
+        }
+        System.arraycopy(this.listeners, existing, listeners, index, this.listeners.length - existing);
+        System.arraycopy(this.checks, existing, checks, index, this.checks.length - existing);
+        return new ListenerChain(listeners, checks);
+    }
+
+    /**
+     * @return a chain without the matching listeners or this chain if nothing matched
+     */
+    ListenerChain without(Predicate<Listener> predicate) {
+        Listener[] listeners = new Listener[this.listeners.length];
+        byte[] checks = new byte[listeners.length];
+        int size = 0;
+        for (int i = 0; i < this.listeners.length; i++) {
+            if (!predicate.test(this.listeners[i])) {
+                listeners[size] = this.listeners[i];
+                checks[size++] = this.checks[i];
+            }
+        }
+
+        if (size == this.listeners.length) {
+            return this;
+        }
+        return new ListenerChain(Arrays.copyOf(listeners, size), Arrays.copyOf(checks, size));
+    }
+
+    /**
+     * The first index behind all listeners with the same or a higher priority.
+     */
+    private int insertionIndex(Listener listener, int from) {
+        int low = from;
+        int high = listeners.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (listeners[middle].compareTo(listener) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param type the type of the posted {@link TypeEvent}
+     * @return the chain of the listeners which may accept the type
+     */
+    ListenerChain forType(Class<?> type) {
+        TypeIndex typeIndex = this.typeIndex;
+        if (typeIndex == null) {
+            this.typeIndex = typeIndex = new TypeIndex(this);
+        }
+        return typeIndex.get(type);
+    }
+
+    /**
+     * @return this chain with every listener wrapped, cached until another wrapper is used
+     */
+    ListenerChain wrapped(ListenerWrapper wrapper) {
+        Wrapped wrapped = this.wrapped;
+        if (wrapped == null || wrapped.wrapper != wrapper) {
+            Listener[] listeners = new Listener[this.listeners.length];
+            for (int i = 0; i < listeners.length; i++) {
+                listeners[i] = wrapper.wrap(this.listeners[i]);
+            }
+            // the wrappers delegate the filters, so they need the same checks
+            this.wrapped = wrapped = new Wrapped(wrapper, new ListenerChain(listeners, checks));
+        }
+        return wrapped.chain;
+    }
+
+    /**
+     * Posts the event to every listener in this chain.
+     *
+     * @param event the event to post
+     * @param type  whether the event is a {@link TypeEvent}
+     */
+    void post(Object event, boolean type) {
+        final Listener[] listeners = this.listeners;
+        final byte[] checks = this.checks;
+        final int[] live = this.live;
+        final Cancelable cancelable = live != null && event instanceof Cancelable ? (Cancelable) event : null;
+        long tested = 0;
+        long passed = 0;
+        for (int i = 0; i < listeners.length; i++) {
+            if (cancelable != null && cancelable.isCanceled() && (i = live[i]) == listeners.length) {
+                return;
+            }
+
+            Listener listener = listeners[i];
+            byte check = checks[i];
+            if (check != 0) {
+                if (type && (check & TYPE) != 0 && !listener.filterType(((TypeEvent) event).getType())) {
+                    continue;
+                }
+                if ((check & GROUP) != 0) {
+                    int group = groupIndices[i];
+                    if (group >= Long.SIZE) {
+                        if (!groups[group].test(event)) {
+                            continue;
+                        }
+                    } else {
+                        long bit = 1L << group;
+                        if ((tested & bit) == 0) {
+                            tested |= bit;
+                            if (groups[group].test(event)) {
+                                passed |= bit;
+                            }
+                        }
+                        if ((passed & bit) == 0) {
+                            continue;
+                        }
+                    }
+                }
+                if ((check & FILTER) != 0 && !listener.filter(event)) {
+                    continue;
+                }
+            }
+
+            listener.invoke(event);
+        }
+    }
+
+    /**
+     * Posts the events to every listener in this chain, one listener after another.
+     *
+     * @param events the events of the event class of this chain
+     * @param type   whether the events are {@link TypeEvent}s
+     */
+    void postAll(Object[] events, int from, int to, boolean type) {
+        final Listener[] listeners = this.listeners;
+        final byte[] checks = this.checks;
+        final int[] live = this.live;
+        final boolean cancelable = live != null && events[from] instanceof Cancelable;
+        // the tested and passed groups of every event
+        final long[] tested = groups == null ? null : new long[to - from];
+        final long[] passed = groups == null ? null : new long[to - from];
+        for (int i = 0; i < listeners.length; i++) {
+            Listener listener = listeners[i];
+            byte check = checks[i];
+            boolean skipCanceled = cancelable && live[i] != i;
+            if (listener instanceof BatchListener) {
+                List<Object> batch = new ArrayList<>(to - from);
+                for (int j = from; j < to; j++) {
+                    if (accepts(i, check, skipCanceled, events[j], type, tested, passed, j - from)) {
+                        batch.add(events[j]);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    ((BatchListener) listener).invokeAll(batch);
+                }
+                continue;
+            }
+
+            for (int j = from; j < to; j++) {
+                if (accepts(i, check, skipCanceled, events[j], type, tested, passed, j - from)) {
+                    listener.invoke(events[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param tested the groups tested per event, null if the chain has no groups
+     * @param passed the groups passed per event, null if the chain has no groups
+     * @param slot   the index of the event in the group masks
+     */
+    private boolean accepts(int index, byte check, boolean skipCanceled, Object event, boolean type,
+                            @Nullable long[] tested, @Nullable long[] passed, int slot) {
+        if (skipCanceled && ((Cancelable) event).isCanceled()) {
+            return false;
+        }
+        if (check != 0) {
+            Listener listener = listeners[index];
+            if (type && (check & TYPE) != 0 && !listener.filterType(((TypeEvent) event).getType())) {
+                return false;
+            }
+            if ((check & GROUP) != 0) {
+                int group = groupIndices[index];
+                if (group >= Long.SIZE) {
+                    if (!groups[group].test(event)) {
+                        return false;
+                    }
+                } else {
+                    long bit = 1L << group;
+                    if ((tested[slot] & bit) == 0) {
+                        tested[slot] |= bit;
+                        if (groups[group].test(event)) {
+                            passed[slot] |= bit;
+                        }
+                    }
+                    if ((passed[slot] & bit) == 0) {
+                        return false;
+                    }
+                }
+            }
+            return (check & FILTER) == 0 || listener.filter(event);
+        }
+        return true;
+    }
+
+    /**
+     * @return the listeners of this chain, sorted by priority; the array must not be modified
+     */
+    Listener[] listeners() {
+        return listeners;
+    }
+
+    /**
+     * @return for every index, the index of the next listener which still wants canceled events, or the length of the
+     * chain; null if no listener ignores canceled events
+     */
+    @Nullable
+    int[] live() {
+        return live;
+    }
+
+    /**
+     * @return the distinct filter groups of the listeners or null if no listener belongs to one; the array must not be
+     * modified
+     */
+    @Nullable
+    FilterGroup[] groups() {
+        return groups;
+    }
+
+    /**
+     * @return for every index, the index of the group of the listener in {@link ListenerChain#groups()} or -1; null if
+     * no listener belongs to a group
+     */
+    @Nullable
+    int[] groupIndices() {
+        return groupIndices;
+    }
+
+    boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    /**
+     * Listeners that only inherit the default filters, or the ones of {@link LambdaListener} and
+     * {@link MethodListener} without anything to filter, don't need to be asked.
+     */
+    private static byte checks(Listener listener) {
+        Class<?>[] declaringClasses = DECLARING_CLASSES.get(listener.getClass());
+        byte checks = 0;
+        if (declaringClasses[0] != Listener.class
+                && !(declaringClasses[0] == LambdaListener.class && ((LambdaListener) listener).getFilter() == null)) {
+            checks |= FILTER;
+        }
+        if (declaringClasses[1] != Listener.class
+                && !(declaringClasses[1] == MethodListener.class && listener.getTypeFilter() == null)) {
+            checks |= TYPE;
+        }
+        if (listener.getFilterGroup() != null) {
+            checks |= GROUP;
+        }
+        return checks;
+    }
+
+    /**
+     * Wraps the listeners of a chain, e.g. to measure them. Wrappers have to delegate everything but
+     * {@link Listener#invoke}.
+     */
+    interface ListenerWrapper {
+
+        Listener wrap(Listener listener);
+
+    }
+
+    /**
+     * A listener created by a {@link ListenerWrapper}.
+     */
+    interface Delegating {
+
+        Listener delegate();
+
+    }
+
+    /**
+     * @return the listener which was registered, without the wrappers around it
+     */
+    static Listener unwrap(Listener listener) {
+        while (listener instanceof Delegating) {
+            listener = ((Delegating) listener).delegate();
+        }
+        return listener;
+    }
+
+    private static final class Wrapped {
+
+        private final ListenerWrapper wrapper;
+        private final ListenerChain chain;
+
+        private Wrapped(ListenerWrapper wrapper, ListenerChain chain) {
+            this.wrapper = wrapper;
+            this.chain = chain;
+        }
+
+    }
+
+    private static final class TypeIndex {
+
+        private final Map<Class<?>, ListenerChain> chains = new HashMap<>();
+        private final ListenerChain untyped;
+
+        private TypeIndex(ListenerChain chain) {
+            Set<Class<?>> types = new HashSet<>();
+            for (Listener listener : chain.listeners) {
+                if (listener.getTypeFilter() != null) {
+                    types.add(listener.getTypeFilter());
+                }
+            }
+
+            if (types.isEmpty()) {
+                untyped = chain;
+                return;
+            }
+
+            untyped = select(chain, null);
+            for (Class<?> type : types) {
+                chains.put(type, select(chain, type));
+            }
+        }
+
+        /**
+         * Copies the untyped listeners and the ones of the type; the latter don't need a type check anymore.
+         */
+        private static ListenerChain select(ListenerChain chain, Class<?> type) {
+            Listener[] listeners = new Listener[chain.listeners.length];
+            byte[] checks = new byte[listeners.length];
+            int size = 0;
+            for (int i = 0; i < chain.listeners.length; i++) {
+                Class<?> typeFilter = chain.listeners[i].getTypeFilter();
+                if (typeFilter == null) {
+                    listeners[size] = chain.listeners[i];
+                    checks[size++] = chain.checks[i];
+                } else if (typeFilter == type) {
+                    listeners[size] = chain.listeners[i];
+                    checks[size++] = (byte) (chain.checks[i] & ~TYPE);
+                }
+            }
+
+            return new ListenerChain(Arrays.copyOf(listeners, size), Arrays.copyOf(checks, size));
+        }
+
+        private ListenerChain get(Class<?> type) {
+            ListenerChain chain = chains.get(type);
+            return chain == null ? untyped : chain;
+        }
+
+    }
+
+}
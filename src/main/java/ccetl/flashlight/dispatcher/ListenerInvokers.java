@@ -0,0 +1,146 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Turns annotated listener methods into {@link Consumer}s.
+ * <p>
+ * The fastest option is a class spun by the {@link LambdaMetafactory}, which costs the same as a hand-written lambda.
+ * This only works if the method is reachable from this library, so there is a fallback to a bound {@link MethodHandle}
+ * and, as a last resort, to plain reflection.
+ * <p>
+ * Every metafactory call spins a new class, so the factories are cached per method. Otherwise, each provider
+ * would bring its own class and turn the call site in {@link ccetl.flashlight.listener.LambdaListener} megamorphic.
+ * The cache hangs off the declaring class and therefore doesn't keep its class loader alive.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class ListenerInvokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType ACCEPT = MethodType.methodType(void.class, Object.class);
+    private static final ClassValue<Map<Method, Function<Object, Consumer>>> FACTORIES = new ClassValue<Map<Method, Function<Object, Consumer>>>() {
+        @Override
+        protected Map<Method, Function<Object, Consumer>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ListenerInvokers() {
+    }
+
+    /**
+     * @param method the listener method, already made accessible
+     * @return a function creating consumers invoking the method on the given provider, which is ignored for static
+     * methods
+     */
+    static Function<Object, Consumer> factory(Method method) {
+        return FACTORIES.get(method.getDeclaringClass()).computeIfAbsent(method, ListenerInvokers::createFactory);
+    }
+
+    private static Function<Object, Consumer> createFactory(Method method) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            return provider -> reflect(method, provider);
+        }
+
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodHandle factory = spin(method, handle, isStatic);
+        if (factory == null) {
+            return provider -> bind(handle, isStatic, provider);
+        }
+
+        return provider -> {
+            try {
+                return isStatic ? (Consumer) factory.invoke() : (Consumer) factory.invoke(provider);
+            } catch (Throwable e) {
+                // the method handle below works for everything the metafactory rejects
+                return bind(handle, isStatic, provider);
+            }
+        };
+    }
+
+    @Nullable
+    private static MethodHandle spin(Method method, MethodHandle handle, boolean isStatic) {
+        if (!isLinkable(method)) {
+            return null;
+        }
+
+        MethodType factoryType = isStatic
+                ? MethodType.methodType(Consumer.class)
+                : MethodType.methodType(Consumer.class, method.getDeclaringClass());
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept", factoryType, ACCEPT, handle,
+                    MethodType.methodType(void.class, method.getParameterTypes()[0]));
+            return callSite.getTarget();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static Consumer bind(MethodHandle handle, boolean isStatic, @Nullable Object provider) {
+        MethodHandle bound = (isStatic ? handle : handle.bindTo(provider)).asType(ACCEPT);
+        return event -> {
+            try {
+                bound.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private static Consumer reflect(Method method, @Nullable Object provider) {
+        return event -> {
+            try {
+                method.invoke(provider, event);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * The generated lambda class lives next to this class, so it has to be able to see and access every type
+     * it refers to.
+     */
+    private static boolean isLinkable(Method method) {
+        return Modifier.isPublic(method.getModifiers())
+                && isReachable(method.getDeclaringClass())
+                && isReachable(method.getParameterTypes()[0]);
+    }
+
+    private static boolean isReachable(Class<?> clazz) {
+        if (clazz.isPrimitive()) {
+            return false;
+        }
+
+        for (Class<?> current = clazz; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+
+        try {
+            return Class.forName(clazz.getName(), false, ListenerInvokers.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.EventListener;
+import ccetl.flashlight.annotation.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Hands the annotated listeners of one class to an event system without any reflection.
+ * <p>
+ * Implementations are generated at compile time by the annotation processor of the {@code processor} module,
+ * which is enabled with {@code annotationProcessor 'com.github.ccetl.flashlight:processor:version'}.
+ * The registrar of a class {@code a.b.Outer$Inner} is called {@code a.b.Outer$Inner$$FlashlightRegistrar}.
+ * {@link EventSystem#register(Object)} and {@link EventSystem#deregister(Object)} fall back to reflection for classes
+ * without one, for example private classes or classes whose listeners only come from a super class.
+ *
+ * @param <T> the class declaring the listeners
+ * @see EventListener
+ */
+public interface ListenerRegistrar<T> {
+
+    /**
+     * The suffix appended to the binary name of a class to get the name of its registrar.
+     */
+    String SUFFIX = "$$FlashlightRegistrar";
+
+    /**
+     * Hands every public {@link EventListener} method of the provider to the collector.
+     *
+     * @param provider  the object declaring the listeners
+     * @param collector receives the listeners
+     */
+    void collect(T provider, Collector collector);
+
+    interface Collector {
+
+        /**
+         * @param provider       the object declaring the listener
+         * @param eventClass     the parameter type of the listener method
+         * @param name           the name of the listener method
+         * @param priority       the priority from {@link ccetl.flashlight.annotation.ListenerPriority}
+         * @param type           the type filter from {@link ccetl.flashlight.annotation.EventType} or null
+         * @param ignoreCanceled the value of {@link EventListener#ignoreCanceled()}
+         * @param invoker        calls the listener method on the provider
+         */
+        <E> void collect(Object provider, Class<E> eventClass, String name, byte priority, @Nullable Class<?> type, boolean ignoreCanceled, Consumer<E> invoker);
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.listener.Listener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Stores the {@link ListenerChain} of every event class.
+ * <p>
+ * Each change computes a new chain and publishes it atomically, so concurrent changes of the same event class don't
+ * get lost and posting threads always see a consistent snapshot. Bulk operations merge all changes of one event class
+ * into a single new chain.
+ * <p>
+ * Posting threads read the chain from a slot attached to the event class through a {@link ClassValue}, which skips the
+ * hashing of the map. Every change writes the new chain into the slot while the map holds the lock of its entry,
+ * so a slot never falls behind the map. The slots live with their classes, so unloaded event classes aren't kept.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class ListenerRegistry {
+
+    private final Map<Class<?>, ListenerChain> chains = new ConcurrentHashMap<>();
+    private final ClassValue<Slot> slots = new ClassValue<Slot>() {
+        @Override
+        protected Slot computeValue(Class<?> type) {
+            return new Slot(chains.get(type));
+        }
+    };
+    /**
+     * Invoked with the event class after its chain changed.
+     */
+    private final Consumer<Class<?>> changeListener;
+
+    ListenerRegistry(Consumer<Class<?>> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * @return the chain of the event class or null if there is none
+     */
+    @Nullable
+    ListenerChain get(Class<?> eventClass) {
+        return slots.get(eventClass).chain;
+    }
+
+    void register(Class<?> eventClass, Listener listener) {
+        chains.compute(eventClass, (key, chain) -> publish(key, (chain == null ? ListenerChain.EMPTY : chain).with(listener)));
+        changeListener.accept(eventClass);
+    }
+
+    void registerAll(Collection<? extends Listener<?>> listeners) {
+        for (Map.Entry<Class<?>, List<Listener>> entry : group(listeners).entrySet()) {
+            List<Listener> added = entry.getValue();
+            added.sort(Listener::compareTo); // stable, so the order of the collection is kept on equal priorities
+            chains.compute(entry.getKey(), (key, chain) -> publish(key, (chain == null ? ListenerChain.EMPTY : chain).withAll(added)));
+            changeListener.accept(entry.getKey());
+        }
+    }
+
+    /**
+     * @return true if at least one listener was removed
+     */
+    boolean deregister(Class<?> eventClass, Predicate<Listener> predicate) {
+        boolean[] removed = new boolean[1];
+        chains.computeIfPresent(eventClass, (key, chain) -> {
+            ListenerChain remaining = chain.without(predicate);
+            removed[0] = remaining != chain;
+            return publish(key, remaining.isEmpty() ? null : remaining);
+        });
+
+        if (removed[0]) {
+            changeListener.accept(eventClass);
+        }
+        return removed[0];
+    }
+
+    void deregisterAll(Collection<? extends Listener<?>> listeners) {
+        for (Map.Entry<Class<?>, List<Listener>> entry : group(listeners).entrySet()) {
+            Set<Listener> removed = new HashSet<>(entry.getValue());
+            deregister(entry.getKey(), removed::contains);
+        }
+    }
+
+    void deregisterAll(Class<?> eventClass) {
+        boolean[] removed = new boolean[1];
+        chains.computeIfPresent(eventClass, (key, chain) -> {
+            removed[0] = true;
+            return publish(key, null);
+        });
+
+        if (removed[0]) {
+            changeListener.accept(eventClass);
+        }
+    }
+
+    boolean hasListeners(Class<?> eventClass) {
+        ListenerChain chain = chains.get(eventClass);
+        return chain != null && !chain.isEmpty();
+    }
+
+    void scan(@Nullable Consumer<Class<?>> eventClassScanner, @Nullable BiConsumer<Class<?>, Listener> listenerScanner) {
+        Scanner.scanListeners(chains, eventClassScanner, listenerScanner);
+    }
+
+    /**
+     * Writes the chain into the slot of the event class; called while the map holds the lock of the entry.
+     *
+     * @return the chain
+     */
+    @Nullable
+    private ListenerChain publish(Class<?> eventClass, @Nullable ListenerChain chain) {
+        slots.get(eventClass).chain = chain;
+        return chain;
+    }
+
+    private static Map<Class<?>, List<Listener>> group(Collection<? extends Listener<?>> listeners) {
+        Map<Class<?>, List<Listener>> groups = new LinkedHashMap<>();
+        for (Listener<?> listener : listeners) {
+            groups.computeIfAbsent(listener.getTarget(), key -> new ArrayList<>()).add(listener);
+        }
+        return groups;
+    }
+
+    private static final class Slot {
+
+        @Nullable
+        private volatile ListenerChain chain;
+
+        private Slot(@Nullable ListenerChain chain) {
+            this.chain = chain;
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package ccetl.flashlight.dispatcher;
+
+/**
+ * A snapshot of the runtime data of one listener, recorded while the instrumentation of its event system was on.
+ * <p>
+ * Only every n-th invocation is timed, so the latencies describe the samples while the invocation count is exact.
+ * The percentiles come from a histogram with eight buckets per power of two, so they are accurate to about 12.5%.
+ *
+ * @see EventSystem#enableInstrumentation(int)
+ */
+public final class ListenerStatistics {
+
+    private final long invocations;
+    private final long samples;
+    private final long sampledNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    ListenerStatistics(long invocations, long samples, long sampledNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+        this.invocations = invocations;
+        this.samples = samples;
+        this.sampledNanos = sampledNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return how often the listener got invoked
+     */
+    public long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * @return how many invocations got timed
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the cumulative time of the timed invocations
+     */
+    public long getSampledNanos() {
+        return sampledNanos;
+    }
+
+    /**
+     * @return the cumulative time of all invocations, extrapolated from the samples
+     */
+    public long getEstimatedTotalNanos() {
+        return samples == 0 ? 0 : (long) (sampledNanos * ((double) invocations / samples));
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ListenerStatistics{" +
+                "invocations=" + invocations +
+                ", samples=" + samples +
+                ", sampledNanos=" + sampledNanos +
+                ", p50Nanos=" + p50Nanos +
+                ", p99Nanos=" + p99Nanos +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+
+}
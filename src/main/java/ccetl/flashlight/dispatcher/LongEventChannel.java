@@ -0,0 +1,31 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.LongListener;
+
+/**
+ * Posts {@code long} values to {@link LongListener}s without boxing or allocating.
+ *
+ * @see PrimitiveChannel
+ */
+public final class LongEventChannel extends PrimitiveChannel<LongListener> {
+
+    public LongEventChannel() {
+        super(LongListener[]::new);
+    }
+
+    /**
+     * Posts the value to the listeners, in priority order, until one of them cancels it.
+     *
+     * @param value the value to post
+     * @return true if a listener canceled the post
+     */
+    public boolean post(long value) {
+        for (LongListener listener : listeners) {
+            if (listener.invoke(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
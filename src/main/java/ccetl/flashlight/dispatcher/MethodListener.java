@@ -3,27 +3,28 @@ package ccetl.flashlight.dispatcher;
 import ccetl.flashlight.annotation.Nullable;
 import ccetl.flashlight.listener.LambdaListener;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Objects;
+import java.util.function.Consumer;
 
+/**
+ * A listener created from an annotated method.
+ * <p>
+ * Two method listeners are equal when they invoke the same method on the same provider, no matter if the invoker was
+ * built from reflection or by a generated {@link ListenerRegistrar}.
+ */
 class MethodListener<E> extends LambdaListener<E> {
 
     private final Object provider;
-    private final Method method;
+    private final String name;
     private final Class<?> type;
+    private final boolean ignoreCanceled;
 
-    public MethodListener(Class<E> target, Method method, @Nullable Object provider, byte priority, @Nullable Class<?> type) {
-        super(target, priority, event -> {
-            try {
-                method.invoke(provider, event);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new RuntimeException(e);
-            }
-        });
+    public MethodListener(Class<E> target, String name, @Nullable Object provider, byte priority, @Nullable Class<?> type, boolean ignoreCanceled, Consumer<E> invoker) {
+        super(target, priority, invoker);
         this.provider = provider;
-        this.method = method;
+        this.name = name;
         this.type = type;
+        this.ignoreCanceled = ignoreCanceled;
     }
 
     @Override
@@ -31,6 +32,31 @@ class MethodListener<E> extends LambdaListener<E> {
         return type == null || eventClass == type;
     }
 
+    @Nullable
+    @Override
+    public Class<?> getTypeFilter() {
+        return type;
+    }
+
+    @Override
+    public boolean ignoresCanceled() {
+        return ignoreCanceled;
+    }
+
+    @Nullable
+    Object getProvider() {
+        return provider;
+    }
+
+    /**
+     * Matches without building a second listener, which would also build a second invoker.
+     *
+     * @return true if this listener invokes the given method on the given provider
+     */
+    boolean matches(Class<?> target, String name, @Nullable Object provider) {
+        return getTarget() == target && this.name.equals(name) && Objects.equals(this.provider, provider);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -39,14 +65,21 @@ class MethodListener<E> extends LambdaListener<E> {
         MethodListener<?> that = (MethodListener<?>) o;
 
         if (!Objects.equals(provider, that.provider)) return false;
-        return method.equals(that.method);
+        if (getTarget() != that.getTarget()) return false;
+        return name.equals(that.name);
     }
 
     @Override
     public int hashCode() {
         int result = provider != null ? provider.hashCode() : 0;
-        result = 31 * result + method.hashCode();
+        result = 31 * result + name.hashCode();
+        result = 31 * result + getTarget().hashCode();
         return result;
     }
 
+    @Override
+    public String toString() {
+        return provider == null ? name : provider.getClass().getName() + "#" + name;
+    }
+
 }
@@ -0,0 +1,132 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.listener.BatchListener;
+import ccetl.flashlight.listener.FilterGroup;
+import ccetl.flashlight.listener.Listener;
+
+import java.util.List;
+
+/**
+ * A {@link DispatchMonitor} set on an event system, wrapping the listeners if it monitors them.
+ * A batch is reported as one invocation with its first event.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class Monitoring implements ListenerChain.ListenerWrapper {
+
+    final DispatchMonitor monitor;
+    final boolean listeners;
+
+    private Monitoring(DispatchMonitor monitor) {
+        this.monitor = monitor;
+        this.listeners = monitor.monitorsListeners();
+    }
+
+    @Nullable
+    static Monitoring of(@Nullable DispatchMonitor monitor) {
+        return monitor == null ? null : new Monitoring(monitor);
+    }
+
+    /**
+     * @return the chain with monitored listeners if the monitor wants them
+     */
+    ListenerChain wrap(ListenerChain chain) {
+        return listeners ? chain.wrapped(this) : chain;
+    }
+
+    @Override
+    public Listener wrap(Listener listener) {
+        return listener instanceof BatchListener
+                ? new MonitoredBatchListener(listener, monitor)
+                : new MonitoredListener(listener, monitor);
+    }
+
+    private static class MonitoredListener implements Listener, ListenerChain.Delegating {
+
+        final Listener listener;
+        /**
+         * The registered listener passed to the monitor, in case the listener is instrumented.
+         */
+        final Listener registered;
+        final DispatchMonitor monitor;
+
+        private MonitoredListener(Listener listener, DispatchMonitor monitor) {
+            this.listener = listener;
+            this.registered = ListenerChain.unwrap(listener);
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void invoke(Object event) {
+            Object token = monitor.listenerStarted(registered, event);
+            try {
+                listener.invoke(event);
+            } finally {
+                monitor.listenerFinished(token, registered, event);
+            }
+        }
+
+        @Override
+        public Listener delegate() {
+            return listener;
+        }
+
+        @Override
+        public Class getTarget() {
+            return listener.getTarget();
+        }
+
+        @Override
+        public byte getPriority() {
+            return listener.getPriority();
+        }
+
+        @Override
+        public boolean filter(Object event) {
+            return listener.filter(event);
+        }
+
+        @Override
+        public boolean filterType(Class eventClass) {
+            return listener.filterType(eventClass);
+        }
+
+        @Nullable
+        @Override
+        public Class<?> getTypeFilter() {
+            return listener.getTypeFilter();
+        }
+
+        @Override
+        public boolean ignoresCanceled() {
+            return listener.ignoresCanceled();
+        }
+
+        @Nullable
+        @Override
+        public FilterGroup getFilterGroup() {
+            return listener.getFilterGroup();
+        }
+
+    }
+
+    private static final class MonitoredBatchListener extends MonitoredListener implements BatchListener {
+
+        private MonitoredBatchListener(Listener listener, DispatchMonitor monitor) {
+            super(listener, monitor);
+        }
+
+        @Override
+        public void invokeAll(List events) {
+            Object event = events.get(0);
+            Object token = monitor.listenerStarted(registered, event);
+            try {
+                ((BatchListener) listener).invokeAll(events);
+            } finally {
+                monitor.listenerFinished(token, registered, event);
+            }
+        }
+
+    }
+
+}
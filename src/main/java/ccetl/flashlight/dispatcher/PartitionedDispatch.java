@@ -0,0 +1,111 @@
+package ccetl.flashlight.dispatcher;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Posts events on the executor while keeping the order of the events of one key.
+ * <p>
+ * Every key maps to one of a fixed number of stripes. A stripe is a queue which is drained by at most one task at a
+ * time, so its events are posted one after another in the order they arrived, while different stripes run in
+ * parallel. An idle stripe occupies no thread; the first event arriving submits its drain task.
+ */
+final class PartitionedDispatch {
+
+    /**
+     * The events a drain task posts before it makes room for other tasks of the executor.
+     */
+    private static final int BATCH = 64;
+
+    private final Executor executor;
+    private final Predicate<Object> post;
+    private final Stripe[] stripes;
+
+    /**
+     * @param post posts an event synchronously and returns its cancellation status
+     */
+    PartitionedDispatch(Executor executor, int stripes, Predicate<Object> post) {
+        this.executor = executor;
+        this.post = post;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    CompletableFuture<Boolean> post(Object event, Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        Stripe stripe = stripes[(hash & Integer.MAX_VALUE) % stripes.length];
+
+        Entry entry = new Entry(event);
+        stripe.queue.offer(entry);
+        stripe.schedule();
+        return entry.future;
+    }
+
+    private static final class Entry {
+
+        private final Object event;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Entry(Object event) {
+            this.event = event;
+        }
+
+    }
+
+    private final class Stripe implements Runnable {
+
+        private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                executor.execute(this);
+            } catch (Throwable e) {
+                Entry entry;
+                while ((entry = queue.poll()) != null) {
+                    entry.future.completeExceptionally(e);
+                }
+                scheduled.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH; i++) {
+                Entry entry = queue.poll();
+                if (entry == null) {
+                    scheduled.set(false);
+                    // an event offered after the poll may have seen the stripe as scheduled
+                    if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+
+                try {
+                    entry.future.complete(post.test(entry.event));
+                } catch (Throwable e) {
+                    entry.future.completeExceptionally(e);
+                }
+            }
+
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.event.DefaultPriorities;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * The listeners of a channel posting a primitive value, for events which are nothing but a number.
+ * <p>
+ * Like a {@link ListenerChain}, the listeners are an immutable array sorted by priority which gets replaced on every
+ * change, so posting only reads one volatile field and walks the array. A listener cancels a post by returning true,
+ * which stops it before the listeners with a lower priority.
+ * <p>
+ * Only the channels of this package extend it: {@link IntEventChannel}, {@link LongEventChannel} and
+ * {@link DoubleEventChannel}.
+ *
+ * @param <L> the listener type
+ */
+public abstract class PrimitiveChannel<L> {
+
+    private final IntFunction<L[]> arrayFactory;
+    /**
+     * The listeners sorted by priority; replaced, never modified.
+     */
+    volatile L[] listeners;
+    /**
+     * The priorities of the listeners; only accessed while holding the lock of this channel.
+     */
+    private byte[] priorities = new byte[0];
+
+    PrimitiveChannel(IntFunction<L[]> arrayFactory) {
+        this.arrayFactory = arrayFactory;
+        this.listeners = arrayFactory.apply(0);
+    }
+
+    /**
+     * Registers the listener with {@link DefaultPriorities#NORMAL}.
+     */
+    public void register(L listener) {
+        register(listener, DefaultPriorities.NORMAL);
+    }
+
+    /**
+     * Registers the listener behind the listeners with the same or a higher priority.
+     *
+     * @param listener the listener
+     * @param priority the priority, higher ones receive the value first
+     */
+    public synchronized void register(L listener, byte priority) {
+        L[] listeners = this.listeners;
+        int index = 0;
+        while (index < priorities.length && priorities[index] >= priority) {
+            index++;
+        }
+
+        L[] newListeners = arrayFactory.apply(listeners.length + 1);
+        byte[] newPriorities = new byte[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, index);
+        System.arraycopy(priorities, 0, newPriorities, 0, index);
+        newListeners[index] = listener;
+        newPriorities[index] = priority;
+        System.arraycopy(listeners, index, newListeners, index + 1, listeners.length - index);
+        System.arraycopy(priorities, index, newPriorities, index + 1, listeners.length - index);
+        this.priorities = newPriorities;
+        this.listeners = newListeners;
+    }
+
+    /**
+     * Removes the first registration of the listener.
+     *
+     * @return true if the listener was registered
+     */
+    public synchronized boolean deregister(L listener) {
+        L[] listeners = this.listeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                L[] newListeners = arrayFactory.apply(listeners.length - 1);
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                byte[] newPriorities = new byte[priorities.length - 1];
+                System.arraycopy(priorities, 0, newPriorities, 0, i);
+                System.arraycopy(priorities, i + 1, newPriorities, i, priorities.length - i - 1);
+                this.priorities = newPriorities;
+                this.listeners = newListeners;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if any listener is registered
+     */
+    public boolean hasListeners() {
+        return listeners.length != 0;
+    }
+
+    /**
+     * @return a copy of the listeners sorted by priority
+     */
+    public L[] getListeners() {
+        L[] listeners = this.listeners;
+        return Arrays.copyOf(listeners, listeners.length);
+    }
+
+}
@@ -0,0 +1,23 @@
+package ccetl.flashlight.dispatcher;
+
+/**
+ * What happens to an event which is enqueued while the queue is full.
+ *
+ * @see EventSystem#startQueue(int, int, QueueFullPolicy)
+ */
+public enum QueueFullPolicy {
+
+    /**
+     * The producer waits until a dispatcher thread made room.
+     */
+    BLOCK,
+    /**
+     * The event is discarded.
+     */
+    DROP,
+    /**
+     * The producer posts the event itself.
+     */
+    CALLER_RUNS
+
+}
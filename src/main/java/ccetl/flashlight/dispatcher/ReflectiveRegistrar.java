@@ -0,0 +1,88 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.EventListener;
+import ccetl.flashlight.annotation.EventType;
+import ccetl.flashlight.annotation.ListenerPriority;
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.event.DefaultPriorities;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The registrar of classes without a generated one.
+ * <p>
+ * The public methods of the class are scanned once and turned into descriptors; registering another instance only
+ * costs as much as the number of listener methods.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class ReflectiveRegistrar implements ListenerRegistrar<Object> {
+
+    private final Descriptor[] descriptors;
+
+    ReflectiveRegistrar(Class<?> type) {
+        List<Descriptor> descriptors = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            Descriptor descriptor = Descriptor.parse(method);
+            if (descriptor != null) {
+                descriptors.add(descriptor);
+            }
+        }
+        this.descriptors = descriptors.toArray(new Descriptor[0]);
+    }
+
+    @Override
+    public void collect(Object provider, Collector collector) {
+        for (Descriptor descriptor : descriptors) {
+            collector.collect(provider, descriptor.eventClass, descriptor.name, descriptor.priority, descriptor.type,
+                    descriptor.ignoreCanceled, descriptor.invokerFactory.apply(provider));
+        }
+    }
+
+    /**
+     * The parsed annotations of a listener method.
+     */
+    static final class Descriptor {
+
+        final Class eventClass;
+        final String name;
+        final byte priority;
+        @Nullable
+        final Class<?> type;
+        final boolean ignoreCanceled;
+        final Function<Object, Consumer> invokerFactory;
+
+        private Descriptor(Method method) {
+            method.setAccessible(true);
+            this.eventClass = method.getParameterTypes()[0];
+            this.name = method.getName();
+
+            ListenerPriority priority = method.getAnnotation(ListenerPriority.class);
+            this.priority = priority == null ? DefaultPriorities.NORMAL : priority.priority();
+
+            EventType type = method.getAnnotation(EventType.class);
+            this.type = type == null ? null : type.typeFilter();
+
+            this.ignoreCanceled = method.getAnnotation(EventListener.class).ignoreCanceled();
+
+            this.invokerFactory = ListenerInvokers.factory(method);
+        }
+
+        /**
+         * @return the descriptor or null if the method isn't a listener
+         */
+        @Nullable
+        static Descriptor parse(Method method) {
+            return isListener(method) ? new Descriptor(method) : null;
+        }
+
+    }
+
+    static boolean isListener(Method method) {
+        return method.isAnnotationPresent(EventListener.class) && method.getParameterCount() == 1;
+    }
+
+}
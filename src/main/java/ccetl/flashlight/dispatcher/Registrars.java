@@ -0,0 +1,37 @@
+package ccetl.flashlight.dispatcher;
+
+/**
+ * Caches the {@link ListenerRegistrar} of every class.
+ * <p>
+ * The registrars are stored in a {@link ClassValue}, so they are tied to the lifetime of their class and don't keep
+ * unloaded class loaders alive.
+ */
+@SuppressWarnings("rawtypes")
+final class Registrars {
+
+    private static final ClassValue<ListenerRegistrar> REGISTRARS = new ClassValue<ListenerRegistrar>() {
+        @Override
+        protected ListenerRegistrar computeValue(Class<?> type) {
+            try {
+                Class<?> registrar = Class.forName(type.getName() + ListenerRegistrar.SUFFIX, true, type.getClassLoader());
+                if (ListenerRegistrar.class.isAssignableFrom(registrar)) {
+                    return (ListenerRegistrar) registrar.getDeclaredConstructor().newInstance();
+                }
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                // there is no generated registrar
+            }
+            return new ReflectiveRegistrar(type);
+        }
+    };
+
+    private Registrars() {
+    }
+
+    /**
+     * @return the generated registrar of the class or a reflective one if there is none
+     */
+    static ListenerRegistrar of(Class<?> type) {
+        return REGISTRARS.get(type);
+    }
+
+}
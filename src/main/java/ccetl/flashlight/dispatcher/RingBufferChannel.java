@@ -0,0 +1,264 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.event.PersistentCancelable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Posts preallocated events from a ring buffer, so posting doesn't allocate.
+ * <p>
+ * Producers claim the next slot with {@link RingBufferChannel#next()}, fill the event returned by
+ * {@link RingBufferChannel#get(long)} and hand it over with {@link RingBufferChannel#publish(long)}. One consumer,
+ * either the thread started by {@link RingBufferChannel#start()} or a thread calling {@link RingBufferChannel#poll()},
+ * posts the events to the event system in sequence. A producer waits while the consumer is a whole round behind.
+ * <p>
+ * Claiming and publishing cost an atomic update and a volatile read per call, so producers of many small events should
+ * claim them in batches with {@link RingBufferChannel#next(int)} and {@link RingBufferChannel#publish(long, long)}.
+ * <p>
+ * The channel trades latency for allocation: it doesn't allocate and leaves nothing to collect, but posting an event
+ * through it takes longer than posting a new one, since the JIT optimizes short-lived events better than reused ones
+ * and the hand-over costs a few ordered accesses per event. Batches reduce, but don't remove the difference, so the
+ * channel pays off where allocation rates or collection pauses matter more than the latency of a single post.
+ * <p>
+ * Every slot is reset when it gets claimed again, so a canceled event doesn't stay canceled: by the reset callback of
+ * the owner, or by {@link PersistentCancelable#rescind()} without one. A plain {@link Cancelable} has no public way to
+ * be reset, so it requires a callback; this keeps the reset with the owner, listeners can't revert a cancellation.
+ * The events are posted synchronously and must not be kept by listeners, since they are reused.
+ *
+ * @param <E> the event type
+ */
+public final class RingBufferChannel<E> {
+
+    private static final long WAIT_NANOS = 1_000L;
+
+    private final IEventSystem eventSystem;
+    private final Object[] events;
+    @Nullable
+    private final Consumer<? super E> reset;
+    /**
+     * The sequence published into every slot; a slot is ready once it holds the sequence the consumer expects.
+     */
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    /**
+     * The last sequence the consumer posted.
+     */
+    private final AtomicLong consumed = new AtomicLong(-1);
+    @Nullable
+    private volatile Thread consumer;
+    private volatile boolean waiting;
+    private volatile boolean running;
+
+    /**
+     * Creates a channel which rescinds the cancellation of {@link PersistentCancelable} events when their slot gets
+     * claimed again. Other state is kept, so the producer has to overwrite it.
+     *
+     * @param eventSystem the event system posting the events
+     * @param size        the number of preallocated events, rounded up to a power of two
+     * @param factory     creates the preallocated events
+     * @throws IllegalArgumentException if the events are {@link Cancelable} but not {@link PersistentCancelable}
+     */
+    public RingBufferChannel(IEventSystem eventSystem, int size, Supplier<? extends E> factory) {
+        this(eventSystem, size, factory, null);
+    }
+
+    /**
+     * @param eventSystem the event system posting the events
+     * @param size        the number of preallocated events, rounded up to a power of two
+     * @param factory     creates the preallocated events
+     * @param reset       restores the state of a newly created event whenever a slot gets claimed again, or null to
+     *                    only rescind {@link PersistentCancelable} events
+     * @throws IllegalArgumentException if the reset is null and the events are {@link Cancelable} but not
+     *                                  {@link PersistentCancelable}
+     */
+    public RingBufferChannel(IEventSystem eventSystem, int size, Supplier<? extends E> factory,
+                             @Nullable Consumer<? super E> reset) {
+        if (size < 1 || size > 1 << 30) {
+            throw new IllegalArgumentException("size: " + size);
+        }
+
+        int capacity = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        this.eventSystem = eventSystem;
+        this.events = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        boolean persistent = false;
+        for (int i = 0; i < capacity; i++) {
+            Object event = factory.get();
+            if (reset == null && event instanceof Cancelable) {
+                if (!(event instanceof PersistentCancelable)) {
+                    throw new IllegalArgumentException("A Cancelable event requires a reset callback: "
+                            + event.getClass().getName());
+                }
+                persistent = true;
+            }
+            events[i] = event;
+            published.set(i, -1);
+        }
+        this.reset = persistent ? event -> ((PersistentCancelable) event).rescind() : reset;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Claims the next slot, waiting until the consumer released it.
+     *
+     * @return the sequence of the slot, which has to be published afterward
+     */
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * Claims the next slots at once, waiting until the consumer released all of them.
+     * The claimed sequences are the returned one and the {@code n - 1} before it.
+     *
+     * @param n the number of slots, at most the size of the buffer
+     * @return the highest claimed sequence
+     */
+    public long next(int n) {
+        if (n < 1 || n > events.length) {
+            throw new IllegalArgumentException("n: " + n);
+        }
+
+        long high = cursor.getAndAdd(n) + n - 1;
+        while (high - events.length > consumed.get()) {
+            wakeUp();
+            LockSupport.parkNanos(this, WAIT_NANOS);
+        }
+
+        if (reset != null) {
+            for (long sequence = high - n + 1; sequence <= high; sequence++) {
+                reset.accept(get(sequence));
+            }
+        }
+        return high;
+    }
+
+    /**
+     * @param sequence a claimed sequence
+     * @return the preallocated event of the sequence
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) events[(int) sequence & mask];
+    }
+
+    /**
+     * Hands the event of a claimed sequence over to the consumer.
+     */
+    public void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+        wakeUp();
+    }
+
+    /**
+     * Hands the events of the claimed sequences from {@code low} to {@code high}, both included, over to the consumer.
+     */
+    public void publish(long low, long high) {
+        for (long sequence = low; sequence < high; sequence++) {
+            published.lazySet((int) sequence & mask, sequence);
+        }
+        // the volatile write of the last slot orders the others before the check of a parked consumer
+        publish(high);
+    }
+
+    /**
+     * Claims a slot, fills it and publishes it.
+     *
+     * @param translator writes the data into the preallocated event
+     */
+    public void publish(Consumer<? super E> translator) {
+        long sequence = next();
+        try {
+            translator.accept(get(sequence));
+        } finally {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Posts all published events on the calling thread.
+     * Must not be called while the consumer thread is running or by more than one thread at a time.
+     *
+     * @return the number of posted events
+     */
+    public int poll() {
+        long next = consumed.get() + 1;
+        int posted = 0;
+        while (published.get((int) next & mask) == next) {
+            try {
+                eventSystem.post(events[(int) next & mask]);
+            } finally {
+                consumed.lazySet(next++);
+                posted++;
+            }
+        }
+        return posted;
+    }
+
+    /**
+     * Starts a daemon thread posting the published events.
+     *
+     * @return this channel
+     * @throws IllegalStateException if the consumer thread is already running
+     */
+    public synchronized RingBufferChannel<E> start() {
+        if (consumer != null) {
+            throw new IllegalStateException("The consumer is already running");
+        }
+
+        running = true;
+        Thread thread = new Thread(this::consume, "flashlight-ring-buffer");
+        thread.setDaemon(true);
+        consumer = thread;
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Stops the consumer thread; events which haven't been posted yet stay in the buffer.
+     */
+    public synchronized void shutDown() {
+        Thread thread = consumer;
+        if (thread != null) {
+            running = false;
+            consumer = null;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void consume() {
+        Thread thread = Thread.currentThread();
+        while (running) {
+            int posted;
+            try {
+                posted = poll();
+            } catch (Throwable e) {
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                continue;
+            }
+
+            if (posted == 0) {
+                waiting = true;
+                long next = consumed.get() + 1;
+                if (published.get((int) next & mask) != next && running) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+            }
+        }
+    }
+
+    private void wakeUp() {
+        if (waiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+}
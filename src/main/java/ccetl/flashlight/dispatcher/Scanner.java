@@ -3,7 +3,6 @@ package ccetl.flashlight.dispatcher;
 import ccetl.flashlight.annotation.Nullable;
 import ccetl.flashlight.listener.Listener;
 
-import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -14,12 +13,12 @@ class Scanner {
     private Scanner() {
     }
 
-    protected static void scanListeners(Map<Class<?>, List<Listener>> listeners, @Nullable Consumer<Class<?>> eventClass, @Nullable BiConsumer<Class<?>, Listener> scanner) {
+    protected static void scanListeners(Map<Class<?>, ListenerChain> listeners, @Nullable Consumer<Class<?>> eventClass, @Nullable BiConsumer<Class<?>, Listener> scanner) {
         if (eventClass == null && scanner == null) {
             return;
         }
 
-        for (Map.Entry<Class<?>, List<Listener>> entry : listeners.entrySet()) {
+        for (Map.Entry<Class<?>, ListenerChain> entry : listeners.entrySet()) {
             if (eventClass != null) {
                 eventClass.accept(entry.getKey());
             }
@@ -28,13 +27,13 @@ class Scanner {
         }
     }
 
-    private static void iterateListeners(BiConsumer<Class<?>, Listener> scanner, Map.Entry<Class<?>, List<Listener>> entry) {
+    private static void iterateListeners(BiConsumer<Class<?>, Listener> scanner, Map.Entry<Class<?>, ListenerChain> entry) {
         if (scanner == null) {
             return;
         }
 
         Class<?> eventClass = entry.getKey();
-        for (Listener listener : entry.getValue()) {
+        for (Listener listener : entry.getValue().listeners()) {
             scanner.accept(eventClass, listener);
         }
     }
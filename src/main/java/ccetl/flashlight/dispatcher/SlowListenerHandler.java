@@ -0,0 +1,25 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.Listener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gets told about asynchronous listeners running longer than their deadline.
+ *
+ * @see EventSystem#startWatchdog(long, TimeUnit, SlowListenerHandler, int)
+ */
+@FunctionalInterface
+public interface SlowListenerHandler {
+
+    /**
+     * Called on the watchdog thread, once per invocation over the deadline, while the listener is still running.
+     *
+     * @param listener     the registered listener
+     * @param event        the event the listener is handling
+     * @param elapsedNanos how long the listener has been running
+     * @param quarantined  true if the listener just got deregistered for exceeding its deadlines too often
+     */
+    void onSlowListener(Listener<?> listener, Object event, long elapsedNanos, boolean quarantined);
+
+}
@@ -0,0 +1,56 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors running every task on a new virtual thread.
+ * <p>
+ * This is the Java 8 version, which looks up {@code Executors#newVirtualThreadPerTaskExecutor()} at runtime.
+ * Jars built on Java 21 or newer carry a version calling it directly.
+ */
+final class VirtualThreads {
+
+    @Nullable
+    private static final MethodHandle FACTORY = lookup();
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the runtime doesn't support virtual threads
+     */
+    static ExecutorService newExecutor() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+
+        try {
+            return (ExecutorService) FACTORY.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nullable
+    private static MethodHandle lookup() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+}
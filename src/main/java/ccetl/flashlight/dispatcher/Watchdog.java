@@ -0,0 +1,120 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.Listener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * A daemon thread checking the running listeners of tracked asynchronous posts against their deadlines.
+ * <p>
+ * The posts register themselves while they run, and the thread walks them every quarter of the default deadline, so
+ * a listener gets reported at most a quarter later than its deadline; shorter deadlines of single event classes may
+ * be reported later. Listeners exceeding their deadline for the set number of times get quarantined.
+ */
+@SuppressWarnings("rawtypes")
+final class Watchdog {
+
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long deadlineNanos;
+    /**
+     * The deadlines of single event classes, shared with the event system.
+     */
+    private final Map<Class<?>, Long> deadlines;
+    private final SlowListenerHandler handler;
+    private final int quarantineAfter;
+    private final Predicate<Listener> quarantine;
+    private final Set<AsyncDispatch> dispatches = ConcurrentHashMap.newKeySet();
+    /**
+     * How often every listener exceeded its deadline; only accessed by the thread.
+     */
+    private final Map<Listener, int[]> overruns = new WeakHashMap<>();
+    private final long intervalNanos;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param deadlineNanos   the deadline of the event classes without one of their own, 0 for none
+     * @param quarantineAfter the number of overruns after which a listener gets quarantined, 0 to never quarantine
+     * @param quarantine      removes a listener; returns false if it was already gone
+     */
+    Watchdog(long deadlineNanos, Map<Class<?>, Long> deadlines, SlowListenerHandler handler, int quarantineAfter,
+             Predicate<Listener> quarantine) {
+        this.deadlineNanos = deadlineNanos;
+        this.deadlines = deadlines;
+        this.handler = handler;
+        this.quarantineAfter = quarantineAfter;
+        this.quarantine = quarantine;
+
+        long shortest = deadlineNanos;
+        for (long deadline : deadlines.values()) {
+            if (deadline > 0 && (shortest == 0 || deadline < shortest)) {
+                shortest = deadline;
+            }
+        }
+        this.intervalNanos = Math.max(shortest / 4, MIN_INTERVAL_NANOS);
+
+        thread = new Thread(this::run, "flashlight-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the deadline of the listeners of the event class, 0 if they have none
+     */
+    long deadlineNanos(Class<?> eventClass) {
+        if (deadlines.isEmpty()) {
+            return deadlineNanos;
+        }
+
+        Long deadline = deadlines.get(eventClass);
+        return deadline == null ? deadlineNanos : deadline;
+    }
+
+    void watch(AsyncDispatch dispatch) {
+        dispatches.add(dispatch);
+    }
+
+    void unwatch(AsyncDispatch dispatch) {
+        dispatches.remove(dispatch);
+    }
+
+    void overrun(Listener listener, Object event, long elapsedNanos) {
+        boolean quarantined = false;
+        if (quarantineAfter > 0) {
+            int[] count = overruns.computeIfAbsent(listener, key -> new int[1]);
+            if (++count[0] == quarantineAfter) {
+                overruns.remove(listener);
+                quarantined = quarantine.test(listener);
+            }
+        }
+
+        try {
+            handler.onSlowListener(listener, event, elapsedNanos, quarantined);
+        } catch (Throwable e) {
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    void shutDown() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            long now = System.nanoTime();
+            for (AsyncDispatch dispatch : dispatches) {
+                dispatch.check(now, this);
+            }
+        }
+    }
+
+}
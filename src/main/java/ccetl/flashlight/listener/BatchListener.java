@@ -0,0 +1,31 @@
+package ccetl.flashlight.listener;
+
+import ccetl.flashlight.dispatcher.IEventSystem;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A listener receiving the events of a batch post in one call, so it can process them together.
+ * <p>
+ * {@link IEventSystem#postAll(java.util.Collection)} passes the events of one class which the listener accepts,
+ * after applying its filters and skipping canceled events if it {@link Listener#ignoresCanceled() ignores} them.
+ * Single posts call {@link BatchListener#invoke} with the event, which defaults to a batch of one.
+ *
+ * @param <E> target event
+ */
+public interface BatchListener<E> extends Listener<E> {
+
+    /**
+     * Executes the listener's code for every event of the batch.
+     *
+     * @param events the accepted events in the order they were posted; the list must not be kept
+     */
+    void invokeAll(List<E> events);
+
+    @Override
+    default void invoke(E event) {
+        invokeAll(Collections.singletonList(event));
+    }
+
+}
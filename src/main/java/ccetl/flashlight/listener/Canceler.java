@@ -33,4 +33,9 @@ public class Canceler<E extends Cancelable> extends LambdaListener<E> {
         super.invoke(event);
     }
 
+    @Override
+    public boolean ignoresCanceled() {
+        return true;
+    }
+
 }
@@ -0,0 +1,155 @@
+package ccetl.flashlight.listener;
+
+import ccetl.flashlight.annotation.Nullable;
+import ccetl.flashlight.dispatcher.EventSystem;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A named filter shared by many listeners.
+ * <p>
+ * A synchronous post of an {@link EventSystem} tests the predicate of a group at most once, when the first of its
+ * listeners is reached, and skips every listener of the group if it fails. The number of predicate calls then grows
+ * with the distinct groups of an event class, not with its listeners. Asynchronous posts, whose listeners may run on
+ * different threads, and {@link EventSystem#postReversed(Object)} test the group for each of its listeners.
+ * <p>
+ * The group filters before the own {@link Listener#filter} of a listener.
+ *
+ * @param <E> the events the predicate accepts
+ * @see FilterGroup#attach(Listener)
+ */
+public final class FilterGroup<E> {
+
+    private final String name;
+    private final Predicate<? super E> predicate;
+
+    /**
+     * @param name      the name of the group, used by {@link FilterGroup#toString()}
+     * @param predicate the filter of the group, true if its listeners should be executed
+     */
+    public FilterGroup(String name, Predicate<? super E> predicate) {
+        this.name = name;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Attaches a listener to this group. Register and deregister the returned listener instead of the given one;
+     * attaching the same listener again returns an equal one. A {@link BatchListener} stays one.
+     *
+     * @param listener the listener to filter by this group
+     * @return a listener which behaves like the given one but belongs to this group
+     * @throws IllegalArgumentException if the listener already belongs to a group
+     */
+    public <T extends E> Listener<T> attach(Listener<T> listener) {
+        if (listener.getFilterGroup() != null) {
+            throw new IllegalArgumentException(listener + " already belongs to " + listener.getFilterGroup());
+        }
+
+        return listener instanceof BatchListener
+                ? new GroupedBatchListener<>((BatchListener<T>) listener, this)
+                : new GroupedListener<>(listener, this);
+    }
+
+    /**
+     * @return true if the listeners of the group should be executed
+     */
+    public boolean test(E event) {
+        return predicate.test(event);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "FilterGroup{" + name + '}';
+    }
+
+    private static class GroupedListener<E> implements Listener<E> {
+
+        final Listener<E> listener;
+        final FilterGroup<? super E> group;
+
+        private GroupedListener(Listener<E> listener, FilterGroup<? super E> group) {
+            this.listener = listener;
+            this.group = group;
+        }
+
+        @Override
+        public void invoke(E event) {
+            listener.invoke(event);
+        }
+
+        @Override
+        public Class<? super E> getTarget() {
+            return listener.getTarget();
+        }
+
+        @Override
+        public byte getPriority() {
+            return listener.getPriority();
+        }
+
+        @Override
+        public boolean filter(E event) {
+            return listener.filter(event);
+        }
+
+        @Override
+        public boolean filterType(Class<?> eventClass) {
+            return listener.filterType(eventClass);
+        }
+
+        @Nullable
+        @Override
+        public Class<?> getTypeFilter() {
+            return listener.getTypeFilter();
+        }
+
+        @Override
+        public boolean ignoresCanceled() {
+            return listener.ignoresCanceled();
+        }
+
+        @Override
+        public FilterGroup<? super E> getFilterGroup() {
+            return group;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GroupedListener)) return false;
+
+            GroupedListener<?> that = (GroupedListener<?>) o;
+            return group == that.group && listener.equals(that.listener);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * listener.hashCode() + group.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return listener + " in " + group;
+        }
+
+    }
+
+    private static final class GroupedBatchListener<E> extends GroupedListener<E> implements BatchListener<E> {
+
+        private GroupedBatchListener(BatchListener<E> listener, FilterGroup<? super E> group) {
+            super(listener, group);
+        }
+
+        @Override
+        public void invokeAll(List<E> events) {
+            ((BatchListener<E>) listener).invokeAll(events);
+        }
+
+    }
+
+}
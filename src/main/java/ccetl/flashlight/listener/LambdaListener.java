@@ -85,6 +85,14 @@ public class LambdaListener<E> implements Listener<E> {
         return filter == null || filter.test(event);
     }
 
+    /**
+     * @return the predicate filtering the events or null if every event is accepted
+     */
+    @Nullable
+    public Predicate<E> getFilter() {
+        return filter;
+    }
+
     @Override
     public Class<? super E> getTarget() {
         return target;
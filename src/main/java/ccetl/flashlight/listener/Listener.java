@@ -1,6 +1,7 @@
 package ccetl.flashlight.listener;
 
 import ccetl.flashlight.annotation.NotNull;
+import ccetl.flashlight.annotation.Nullable;
 import ccetl.flashlight.dispatcher.EventSystem;
 import ccetl.flashlight.event.DefaultPriorities;
 
@@ -54,6 +55,45 @@ public interface Listener<E> {
         return true;
     }
 
+    /**
+     * The type this listener is bound to when posting {@link ccetl.flashlight.event.TypeEvent}s.
+     * <p>
+     * Listeners declaring a type are indexed by it, so posts of other types don't visit them at all.
+     * If this returns a type, {@link Listener#filterType} must accept exactly that type.
+     * Listeners with a more complex type filter should keep the default and only override {@link Listener#filterType}.
+     *
+     * @return the accepted type or null if the listener isn't bound to one
+     */
+    @Nullable
+    default Class<?> getTypeFilter() {
+        return null;
+    }
+
+    /**
+     * The shared filter this listener belongs to, tested before {@link Listener#filter}.
+     * This is read once when the listener gets registered.
+     *
+     * @return the group or null if the listener doesn't belong to one
+     * @see FilterGroup#attach(Listener)
+     */
+    @Nullable
+    default FilterGroup<? super E> getFilterGroup() {
+        return null;
+    }
+
+    /**
+     * Whether the listener skips {@link ccetl.flashlight.event.Cancelable} events which got canceled by a listener
+     * with a higher priority.
+     * <p>
+     * This is read once when the listener gets registered, so the event system can jump over all remaining listeners
+     * which ignore canceled events instead of calling them.
+     *
+     * @return true if the listener isn't interested in canceled events
+     */
+    default boolean ignoresCanceled() {
+        return false;
+    }
+
     /**
      * Compares the priorities of two listeners to
      * use binary search in listener lists.
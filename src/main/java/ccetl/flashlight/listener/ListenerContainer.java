@@ -38,9 +38,8 @@ public abstract class ListenerContainer {
      * Should enable all listeners stored. For example:
      * <pre> {@code
      * Main.EVENT_SYSTEM.register(this);
-     * for (Listener<?> listener : listeners) {
-     *     Main.EVENT_SYSTEM.register(listener);
-     * }}</pre>
+     * Main.EVENT_SYSTEM.registerAll(getListeners());
+     * }</pre>
      */
     public abstract void enableListeners();
 
@@ -48,9 +47,8 @@ public abstract class ListenerContainer {
      * Should disable all listeners stored. For example:
      * <pre> {@code
      * Main.EVENT_SYSTEM.deregister(this);
-     * for (Listener<?> listener : listeners) {
-     *     Main.EVENT_SYSTEM.deregister(listener);
-     * }}</pre>
+     * Main.EVENT_SYSTEM.deregisterAll(getListeners());
+     * }</pre>
      */
     public abstract void disableListeners();
 
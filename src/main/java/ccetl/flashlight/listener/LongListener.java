@@ -0,0 +1,19 @@
+package ccetl.flashlight.listener;
+
+import ccetl.flashlight.dispatcher.LongEventChannel;
+
+/**
+ * A listener of a {@link LongEventChannel}, receiving the posted value without boxing.
+ */
+@FunctionalInterface
+public interface LongListener {
+
+    /**
+     * Executes the listener's code.
+     *
+     * @param value the posted value
+     * @return true to cancel the post, so the listeners with a lower priority don't receive the value
+     */
+    boolean invoke(long value);
+
+}
@@ -0,0 +1,134 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.listener.LambdaListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedExecutorTest {
+
+    private BoundedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Runnable await(CountDownLatch started, CountDownLatch release) {
+        return () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        };
+    }
+
+    @Test
+    void block() throws InterruptedException {
+        executor = new BoundedExecutor(1, 2, QueueFullPolicy.BLOCK, Integer.MAX_VALUE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(await(started, release));
+        executor.execute(() -> {
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.getQueuedTasks());
+        assertEquals(1, executor.getActiveTasks());
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            executor.execute(() -> {
+            });
+            submitted.countDown();
+        });
+        producer.start();
+        assertFalse(submitted.await(50, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        assertEquals(0L, executor.getRejectedTasks());
+    }
+
+    @Test
+    void shutdownNowReturnsWaitingTasks() throws InterruptedException {
+        executor = new BoundedExecutor(1, 3, QueueFullPolicy.BLOCK, Integer.MAX_VALUE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable first = () -> {
+        };
+        Runnable second = () -> {
+        };
+        executor.execute(await(started, release));
+        executor.execute(first);
+        executor.execute(second);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Runnable> waiting = executor.shutdownNow();
+        assertEquals(2, waiting.size());
+        assertTrue(waiting.containsAll(Arrays.asList(first, second)));
+        assertEquals(0, executor.getQueuedTasks());
+        release.countDown();
+    }
+
+    @Test
+    void callerRuns() throws InterruptedException {
+        executor = new BoundedExecutor(1, 1, QueueFullPolicy.CALLER_RUNS, Integer.MAX_VALUE);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(await(started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), thread.get());
+        assertEquals(1L, executor.getCallerRunTasks());
+        release.countDown();
+    }
+
+    @Test
+    void shedLowPriority() throws InterruptedException, ExecutionException {
+        executor = new BoundedExecutor(1, 1, QueueFullPolicy.DROP, DefaultPriorities.HIGH);
+        EventSystem eventSystem = new EventSystem(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean shed = new AtomicBoolean(true);
+        eventSystem.register(new LambdaListener<>(String.class, DefaultPriorities.HIGHEST, e -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }));
+        eventSystem.register(new LambdaListener<>(Integer.class, e -> shed.set(false)));
+
+        CompletableFuture<Boolean> running = eventSystem.postAsync("blocking");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> dropped = eventSystem.postAsync(1);
+        ExecutionException e = assertThrows(ExecutionException.class, dropped::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(1L, executor.getRejectedTasks());
+
+        release.countDown();
+        assertFalse(running.get());
+        assertTrue(shed.get());
+    }
+
+}
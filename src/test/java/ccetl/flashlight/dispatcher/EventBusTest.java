@@ -1,9 +1,15 @@
 package ccetl.flashlight.dispatcher;
 
+import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.listener.BatchListener;
+import ccetl.flashlight.listener.LambdaListener;
 import ccetl.flashlight.listener.Listener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -76,4 +82,66 @@ class EventBusTest {
         assertEquals(1, count.get());
     }
 
-}
\ No newline at end of file
+    @Test
+    void postAll() {
+        List<String> calls = new ArrayList<>();
+        eventBus.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> calls.add("high")));
+        eventBus.register(new BatchListener<TestEvent>() {
+            @Override
+            public void invokeAll(List<TestEvent> events) {
+                calls.add("batch " + events.size());
+            }
+
+            @Override
+            public Class<? super TestEvent> getTarget() {
+                return TestEvent.class;
+            }
+        });
+
+        eventBus.postAll(new TestEvent[]{new TestEvent(), new TestEvent(), new TestEvent()});
+        assertEquals(Arrays.asList("high", "high", "high", "batch 3"), calls);
+    }
+
+    @Test
+    void postAllMonitored() {
+        List<String> calls = new ArrayList<>();
+        eventBus.register(new BatchListener<TestEvent>() {
+            @Override
+            public void invokeAll(List<TestEvent> events) {
+                calls.add("batch " + events.size());
+            }
+
+            @Override
+            public Class<? super TestEvent> getTarget() {
+                return TestEvent.class;
+            }
+        });
+        eventBus.setMonitor(new DispatchMonitor() {
+            @Override
+            public Object postStarted(Object event) {
+                calls.add("post");
+                return null;
+            }
+
+            @Override
+            public void postFinished(Object token, Object event, int listeners, boolean canceled) {
+                calls.add("finished " + listeners);
+            }
+
+            @Override
+            public boolean monitorsListeners() {
+                return true;
+            }
+
+            @Override
+            public Object listenerStarted(Listener<?> l, Object event) {
+                calls.add("listener");
+                return null;
+            }
+        });
+
+        eventBus.postAll(new TestEvent[]{new TestEvent(), new TestEvent()});
+        assertEquals(Arrays.asList("post", "post", "listener", "batch 2", "finished 1", "finished 1"), calls);
+    }
+
+}
@@ -0,0 +1,149 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.listener.LambdaListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventQueueTest {
+
+    private EventSystem eventSystem;
+
+    private static class TestEvent {
+        private final int value;
+
+        private TestEvent(int value) {
+            this.value = value;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        eventSystem = new EventSystem();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventSystem.shutDown();
+    }
+
+    @Test
+    void notStarted() {
+        assertThrows(IllegalStateException.class, () -> eventSystem.enqueue(new TestEvent(0)));
+    }
+
+    @Test
+    void keepsOrderWithOneDispatcher() throws InterruptedException {
+        int events = 10_000;
+        List<Integer> values = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(events);
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+            values.add(e.value);
+            latch.countDown();
+        }));
+        eventSystem.startQueue(128, 1, QueueFullPolicy.BLOCK);
+        assertThrows(IllegalStateException.class, () -> eventSystem.startQueue(128, 1, QueueFullPolicy.BLOCK));
+
+        for (int i = 0; i < events; i++) {
+            assertTrue(eventSystem.enqueue(new TestEvent(i)));
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < events; i++) {
+            assertEquals(i, (int) values.get(i));
+        }
+    }
+
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int events = 5_000;
+        AtomicInteger sum = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(producers * events);
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+            sum.addAndGet(e.value);
+            latch.countDown();
+        }));
+        eventSystem.startQueue(64, 2, QueueFullPolicy.BLOCK);
+
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < events; j++) {
+                    eventSystem.enqueue(new TestEvent(1));
+                }
+            });
+            threads[i].start();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(producers * events, sum.get());
+    }
+
+    @Test
+    void drop() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+            threads.add(Thread.currentThread());
+            if (e.value == 0) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }));
+        eventSystem.startQueue(2, 1, QueueFullPolicy.DROP);
+
+        assertTrue(eventSystem.enqueue(new TestEvent(0)));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        assertTrue(eventSystem.enqueue(new TestEvent(1)));
+        assertTrue(eventSystem.enqueue(new TestEvent(2)));
+        assertFalse(eventSystem.enqueue(new TestEvent(3)));
+        release.countDown();
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    void callerRuns() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+            threads.add(Thread.currentThread());
+            if (e.value == 0) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }));
+        eventSystem.startQueue(2, 1, QueueFullPolicy.CALLER_RUNS);
+
+        assertTrue(eventSystem.enqueue(new TestEvent(0)));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        assertTrue(eventSystem.enqueue(new TestEvent(1)));
+        assertTrue(eventSystem.enqueue(new TestEvent(2)));
+        assertEquals(1, threads.size());
+        assertTrue(eventSystem.enqueue(new TestEvent(3)));
+        assertSame(Thread.currentThread(), threads.get(threads.size() - 1));
+        release.countDown();
+    }
+
+}
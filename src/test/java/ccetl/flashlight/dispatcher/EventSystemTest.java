@@ -1,18 +1,36 @@
 package ccetl.flashlight.dispatcher;
 
 import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.event.Stage;
+import ccetl.flashlight.event.TypeEvent;
+import ccetl.flashlight.listener.BatchListener;
+import ccetl.flashlight.listener.Canceler;
+import ccetl.flashlight.listener.FilterGroup;
+import ccetl.flashlight.listener.LambdaListener;
 import ccetl.flashlight.listener.Listener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 class EventSystemTest {
 
@@ -21,6 +39,25 @@ class EventSystemTest {
     private static class TestEvent extends Cancelable {
     }
 
+    private static class TestTypeEvent implements TypeEvent {
+        private final Class<?> type;
+
+        private TestTypeEvent(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    private interface Marker {
+    }
+
+    private static class SubTestEvent extends TestEvent implements Marker {
+    }
+
     private static final int CONCURRENT_THREADS = 100;
 
     @BeforeEach
@@ -145,4 +182,769 @@ class EventSystemTest {
         assertEquals(1, count.get());
     }
 
-}
\ No newline at end of file
+    @Test
+    void compiledDispatch() {
+        eventSystem.setCompiledDispatch(true);
+        List<String> calls = new ArrayList<>();
+
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, e -> calls.add("low")));
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> false, e -> calls.add("filtered")));
+        eventSystem.post(new TestEvent());
+        assertEquals(Arrays.asList("low"), calls);
+
+        Listener<TestEvent> high = new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> calls.add("high"));
+        eventSystem.register(high);
+        calls.clear();
+        eventSystem.post(new TestEvent());
+        assertEquals(Arrays.asList("high", "low"), calls);
+
+        eventSystem.deregister(high);
+        calls.clear();
+        eventSystem.post(new TestEvent());
+        assertEquals(Arrays.asList("low"), calls);
+    }
+
+    @Test
+    void compiledDispatchTypeFilter() {
+        eventSystem.setCompiledDispatch(true);
+        AtomicInteger count = new AtomicInteger();
+        eventSystem.register(new Listener<TestTypeEvent>() {
+            @Override
+            public void invoke(TestTypeEvent event) {
+                count.incrementAndGet();
+            }
+
+            @Override
+            public Class<? super TestTypeEvent> getTarget() {
+                return TestTypeEvent.class;
+            }
+
+            @Override
+            public boolean filterType(Class<?> eventClass) {
+                return eventClass == String.class;
+            }
+        });
+
+        eventSystem.post(new TestTypeEvent(Integer.class));
+        assertEquals(0, count.get());
+        eventSystem.post(new TestTypeEvent(String.class));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void typeIndexedDispatch() {
+        List<String> calls = new ArrayList<>();
+        eventSystem.register(typed(String.class, DefaultPriorities.LOW, calls));
+        eventSystem.register(typed(Integer.class, DefaultPriorities.NORMAL, calls));
+        eventSystem.register(new LambdaListener<>(TestTypeEvent.class, DefaultPriorities.HIGH, e -> calls.add("untyped")));
+
+        eventSystem.post(new TestTypeEvent(String.class));
+        assertEquals(Arrays.asList("untyped", "String"), calls);
+
+        calls.clear();
+        eventSystem.post(new TestTypeEvent(Integer.class));
+        assertEquals(Arrays.asList("untyped", "Integer"), calls);
+
+        calls.clear();
+        eventSystem.post(new TestTypeEvent(Long.class));
+        assertEquals(Arrays.asList("untyped"), calls);
+
+        eventSystem.register(typed(Long.class, DefaultPriorities.HIGHER, calls));
+        calls.clear();
+        eventSystem.post(new TestTypeEvent(Long.class));
+        assertEquals(Arrays.asList("Long", "untyped"), calls);
+    }
+
+    private static Listener<TestTypeEvent> typed(Class<?> type, byte priority, List<String> calls) {
+        return new Listener<TestTypeEvent>() {
+            @Override
+            public void invoke(TestTypeEvent event) {
+                calls.add(type.getSimpleName());
+            }
+
+            @Override
+            public Class<? super TestTypeEvent> getTarget() {
+                return TestTypeEvent.class;
+            }
+
+            @Override
+            public byte getPriority() {
+                return priority;
+            }
+
+            @Override
+            public Class<?> getTypeFilter() {
+                return type;
+            }
+
+            @Override
+            public boolean filterType(Class<?> eventClass) {
+                return eventClass == type;
+            }
+        };
+    }
+
+    @Test
+    void hierarchyDispatch() {
+        List<String> calls = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(SubTestEvent.class, e -> calls.add("sub")));
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> calls.add("super")));
+        eventSystem.register(new LambdaListener<>(Marker.class, DefaultPriorities.LOW, e -> calls.add("interface")));
+
+        eventSystem.post(new SubTestEvent());
+        assertEquals(Arrays.asList("sub"), calls);
+
+        eventSystem.setHierarchyDispatch(true);
+        calls.clear();
+        eventSystem.post(new SubTestEvent());
+        assertEquals(Arrays.asList("super", "sub", "interface"), calls);
+
+        calls.clear();
+        eventSystem.post(new TestEvent());
+        assertEquals(Arrays.asList("super"), calls);
+
+        eventSystem.register(new LambdaListener<>(Object.class, DefaultPriorities.HIGHEST, e -> calls.add("object")));
+        calls.clear();
+        eventSystem.post(new SubTestEvent());
+        assertEquals(Arrays.asList("object", "super", "sub", "interface"), calls);
+
+        eventSystem.deregisterAll(TestEvent.class);
+        calls.clear();
+        eventSystem.post(new SubTestEvent());
+        assertEquals(Arrays.asList("object", "sub", "interface"), calls);
+    }
+
+    @Test
+    void registerAll() {
+        List<String> calls = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> calls.add("existing")));
+
+        List<Listener<?>> listeners = Arrays.asList(
+                new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, e -> calls.add("low")),
+                new LambdaListener<>(TestEvent.class, e -> calls.add("first")),
+                new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> calls.add("high")),
+                new LambdaListener<>(TestEvent.class, e -> calls.add("second")),
+                new LambdaListener<>(SubTestEvent.class, e -> calls.add("sub"))
+        );
+        eventSystem.registerAll(listeners);
+        eventSystem.post(new TestEvent());
+        assertEquals(Arrays.asList("high", "existing", "first", "second", "low"), calls);
+        assertTrue(eventSystem.hasListeners(SubTestEvent.class));
+
+        eventSystem.deregisterAll(listeners);
+        calls.clear();
+        eventSystem.post(new TestEvent());
+        assertEquals(Arrays.asList("existing"), calls);
+        assertFalse(eventSystem.hasListeners(SubTestEvent.class));
+    }
+
+    @Test
+    void postAsync() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            eventSystem.register(new LambdaListener<>(TestEvent.class, e -> count.incrementAndGet()));
+        }
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, Cancelable::cancel));
+
+        assertTrue(eventSystem.postAsync(new TestEvent()).get(5, TimeUnit.SECONDS));
+        assertEquals(20, count.get());
+        assertFalse(eventSystem.postAsync(new SubTestEvent()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void postAsyncThrowingListener() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        RuntimeException failure = new IllegalStateException();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> {
+            throw failure;
+        }));
+        for (int i = 0; i < 20; i++) {
+            eventSystem.register(new LambdaListener<>(TestEvent.class, e -> count.incrementAndGet()));
+        }
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> eventSystem.postAsync(new TestEvent()).get(5, TimeUnit.SECONDS));
+        assertSame(failure, exception.getCause());
+        assertEquals(20, count.get());
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> eventSystem.post(new TestEvent(), true, true)));
+    }
+
+    @Test
+    void tieredAsyncDispatch() throws Exception {
+        eventSystem.setTieredAsyncDispatch(true);
+        AtomicInteger high = new AtomicInteger();
+        AtomicInteger low = new AtomicInteger();
+        List<Integer> seenByNormal = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> high.incrementAndGet()));
+            eventSystem.register(new LambdaListener<>(TestEvent.class, e -> seenByNormal.add(high.get())));
+            eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, e -> low.incrementAndGet()));
+        }
+
+        assertFalse(eventSystem.postAsync(new TestEvent()).get(5, TimeUnit.SECONDS));
+        assertEquals(Collections.nCopies(10, 10), seenByNormal);
+        assertEquals(10, low.get());
+
+        eventSystem.register(new Canceler<>(TestEvent.class, DefaultPriorities.HIGH));
+        low.set(0);
+        assertTrue(eventSystem.postAsync(new TestEvent()).get(5, TimeUnit.SECONDS));
+        assertTrue(eventSystem.post(new TestEvent(), true, true));
+        assertEquals(0, low.get());
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        if (!EventSystem.isVirtualThreadSupported()) {
+            assertThrows(UnsupportedOperationException.class, EventSystem::withVirtualThreads);
+            return;
+        }
+
+        EventSystem virtual = EventSystem.withVirtualThreads();
+        AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            virtual.register(new LambdaListener<>(TestEvent.class, e -> count.incrementAndGet()));
+        }
+        assertFalse(virtual.postAsync(new TestEvent()).get(5, TimeUnit.SECONDS));
+        assertEquals(10, count.get());
+        virtual.shutDown();
+    }
+
+    @Test
+    void postPartitioned() throws Exception {
+        int keys = 8;
+        int events = 1_000;
+        int[] last = new int[keys];
+        Arrays.fill(last, -1);
+        AtomicInteger outOfOrder = new AtomicInteger();
+        eventSystem.register(new LambdaListener<>(OrderedEvent.class, e -> {
+            if (e.value != last[e.key] + 1) {
+                outOfOrder.incrementAndGet();
+            }
+            last[e.key] = e.value;
+            if (e.value == 500) {
+                throw new IllegalStateException();
+            }
+        }));
+
+        List<CompletableFuture<Boolean>> futures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] producers = new Thread[keys];
+        for (int key = 0; key < keys; key++) {
+            int producerKey = key;
+            producers[key] = new Thread(() -> {
+                for (int i = 0; i < events; i++) {
+                    futures.add(eventSystem.postPartitioned(new OrderedEvent(producerKey, i), e -> e.key));
+                }
+            });
+            producers[key].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        int failed = 0;
+        for (CompletableFuture<Boolean> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failed++;
+            }
+        }
+        assertEquals(keys, failed);
+        assertEquals(0, outOfOrder.get());
+        for (int key = 0; key < keys; key++) {
+            assertEquals(events - 1, last[key]);
+        }
+    }
+
+    private static class OrderedEvent {
+        private final int key;
+        private final int value;
+
+        private OrderedEvent(int key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    @Test
+    void coalesce() {
+        List<String> calls = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(OrderedEvent.class, e -> calls.add(e.key + ":" + e.value)));
+        eventSystem.coalesce(OrderedEvent.class, e -> e.key);
+
+        eventSystem.post(new OrderedEvent(1, 0));
+        eventSystem.post(new OrderedEvent(2, 0));
+        eventSystem.post(new OrderedEvent(1, 1));
+        eventSystem.post(new OrderedEvent(1, 2));
+        assertTrue(calls.isEmpty());
+
+        eventSystem.flush();
+        assertEquals(Arrays.asList("1:2", "2:0"), calls);
+        calls.clear();
+        eventSystem.flush();
+        assertTrue(calls.isEmpty());
+
+        eventSystem.coalesce(OrderedEvent.class, e -> e.key, (pending, event) -> new OrderedEvent(event.key, pending.value + event.value));
+        eventSystem.post(new OrderedEvent(3, 1));
+        eventSystem.post(new OrderedEvent(3, 2));
+        eventSystem.post(new OrderedEvent(4, 5));
+        eventSystem.flush(OrderedEvent.class);
+        assertEquals(Arrays.asList("3:3", "4:5"), calls);
+
+        calls.clear();
+        eventSystem.post(new OrderedEvent(5, 1));
+        eventSystem.stopCoalescing(OrderedEvent.class);
+        eventSystem.post(new OrderedEvent(5, 2));
+        assertEquals(Arrays.asList("5:1", "5:2"), calls);
+    }
+
+    @Test
+    void stopCoalescingWhilePosting() throws InterruptedException {
+        int threads = 4;
+        int events = 20_000;
+        AtomicInteger received = new AtomicInteger();
+        eventSystem.register(new LambdaListener<>(OrderedEvent.class, e -> received.incrementAndGet()));
+        eventSystem.coalesce(OrderedEvent.class, e -> e.key);
+
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> posters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * events;
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < events; i++) {
+                    eventSystem.post(new OrderedEvent(offset + i, 0));
+                }
+            });
+            posters.add(thread);
+            thread.start();
+        }
+
+        started.await();
+        eventSystem.stopCoalescing(OrderedEvent.class);
+        for (Thread thread : posters) {
+            thread.join();
+        }
+        assertEquals(threads * events, received.get());
+    }
+
+    @Test
+    void postDeferred() {
+        List<String> calls = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(OrderedEvent.class, e -> {
+            calls.add("ordered:" + e.value);
+            if (e.value == 0) {
+                eventSystem.postDeferred(new OrderedEvent(0, 9), Stage.PRE);
+            }
+        }));
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> calls.add("test")));
+
+        eventSystem.postDeferred(new OrderedEvent(0, 0), Stage.PRE);
+        eventSystem.postDeferred(new TestEvent(), Stage.PRE);
+        eventSystem.postDeferred(new OrderedEvent(0, 1), Stage.PRE);
+        eventSystem.postDeferred(new OrderedEvent(0, 2));
+        assertTrue(calls.isEmpty());
+
+        eventSystem.flushDeferred(Stage.PRE);
+        assertEquals(Arrays.asList("ordered:0", "ordered:1", "test"), calls);
+
+        calls.clear();
+        eventSystem.flushDeferred(Stage.POST);
+        assertEquals(Arrays.asList("ordered:2"), calls);
+
+        calls.clear();
+        eventSystem.flushDeferred(Stage.PRE);
+        assertEquals(Arrays.asList("ordered:9"), calls);
+    }
+
+    @Test
+    void flushDeferredThrowingListener() {
+        AtomicInteger count = new AtomicInteger();
+        eventSystem.register(new LambdaListener<>(OrderedEvent.class, e -> {
+            count.incrementAndGet();
+            if (e.value == 0) {
+                throw new IllegalStateException();
+            }
+        }));
+
+        for (int i = 0; i < 3; i++) {
+            eventSystem.postDeferred(new OrderedEvent(0, i), Stage.POST);
+        }
+        assertThrows(IllegalStateException.class, () -> eventSystem.flushDeferred(Stage.POST));
+        assertEquals(3, count.get());
+    }
+
+    @Test
+    void skipCanceled() {
+        for (boolean compiled : new boolean[]{false, true}) {
+            eventSystem = new EventSystem();
+            eventSystem.setCompiledDispatch(compiled);
+            List<String> calls = new ArrayList<>();
+            eventSystem.register(new Canceler<>(TestEvent.class, DefaultPriorities.HIGH));
+            eventSystem.register(new Canceler<>(TestEvent.class));
+            eventSystem.register(new LambdaListener<TestEvent>(TestEvent.class, e -> calls.add("skipped")) {
+                @Override
+                public boolean ignoresCanceled() {
+                    return true;
+                }
+            });
+            eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, e -> calls.add("monitor")));
+
+            assertTrue(eventSystem.post(new TestEvent()));
+            assertEquals(Arrays.asList("monitor"), calls);
+        }
+    }
+
+    @Test
+    void instrumentation() {
+        Listener<TestEvent> listener = new LambdaListener<>(TestEvent.class, e -> {
+        });
+        eventSystem.register(listener);
+        eventSystem.post(new TestEvent());
+        eventSystem.scanStatistics((l, statistics) -> fail());
+
+        eventSystem.enableInstrumentation(4);
+        assertTrue(eventSystem.isInstrumented());
+        for (int i = 0; i < 10; i++) {
+            eventSystem.post(new TestEvent());
+        }
+        eventSystem.disableInstrumentation();
+        eventSystem.post(new TestEvent());
+
+        List<ListenerStatistics> scanned = new ArrayList<>();
+        eventSystem.scanStatistics((l, statistics) -> {
+            assertSame(listener, l);
+            scanned.add(statistics);
+        });
+        assertEquals(1, scanned.size());
+        ListenerStatistics statistics = scanned.get(0);
+        assertEquals(10L, statistics.getInvocations());
+        assertEquals(3L, statistics.getSamples());
+        assertTrue(statistics.getP50Nanos() <= statistics.getP99Nanos());
+        assertTrue(statistics.getP99Nanos() <= statistics.getMaxNanos());
+        assertTrue(statistics.getSampledNanos() >= statistics.getMaxNanos());
+    }
+
+    @Test
+    void monitor() {
+        List<String> calls = new ArrayList<>();
+        Listener<TestEvent> listener = new LambdaListener<>(TestEvent.class, e -> calls.add("invoke"));
+        eventSystem.register(listener);
+        eventSystem.register(new Canceler<>(TestEvent.class, DefaultPriorities.LOW));
+        eventSystem.setMonitor(new DispatchMonitor() {
+            @Override
+            public Object postStarted(Object event) {
+                calls.add("post");
+                return "post token";
+            }
+
+            @Override
+            public void postFinished(Object token, Object event, int listeners, boolean canceled) {
+                calls.add(token + " " + listeners + " " + canceled);
+            }
+
+            @Override
+            public boolean monitorsListeners() {
+                return true;
+            }
+
+            @Override
+            public Object listenerStarted(Listener<?> l, Object event) {
+                return l == listener ? "listener" : "canceler";
+            }
+
+            @Override
+            public void listenerFinished(Object token, Listener<?> l, Object event) {
+                calls.add(token + "");
+            }
+        });
+
+        assertTrue(eventSystem.post(new TestEvent()));
+        eventSystem.post("unknown");
+        eventSystem.setMonitor(null);
+        eventSystem.post(new TestEvent());
+
+        assertEquals(Arrays.asList("post", "invoke", "listener", "canceler", "post token 2 true",
+                "post", "post token 0 false", "invoke"), calls);
+    }
+
+    @Test
+    void monitorUnawaitedAsyncPost() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean listenerDone = new AtomicBoolean();
+        AtomicBoolean finishedAfterListener = new AtomicBoolean();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            listenerDone.set(true);
+        }));
+        eventSystem.setMonitor(new DispatchMonitor() {
+            @Override
+            public Object postStarted(Object event) {
+                return null;
+            }
+
+            @Override
+            public void postFinished(Object token, Object event, int listeners, boolean canceled) {
+                finishedAfterListener.set(listenerDone.get());
+                finished.countDown();
+            }
+        });
+
+        assertFalse(eventSystem.post(new TestEvent(), true, false));
+        assertEquals(1, finished.getCount());
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(finishedAfterListener.get());
+    }
+
+    @Test
+    void postAsyncWithTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Listener<TestEvent> stuck = new LambdaListener<>(TestEvent.class, e -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        eventSystem.register(stuck);
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> {
+        }));
+
+        AsyncPostResult result = eventSystem.postAsync(new TestEvent(), 50, TimeUnit.MILLISECONDS);
+        assertFalse(result.isComplete());
+        assertEquals(Collections.singletonList(stuck), result.getUnfinished());
+
+        eventSystem.setAwaitTimeout(50, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        assertFalse(eventSystem.post(new TestEvent(), true, true));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+        release.countDown();
+        result = eventSystem.postAsync(new TestEvent(), 5, TimeUnit.SECONDS);
+        assertTrue(result.isComplete());
+        assertTrue(result.getUnfinished().isEmpty());
+    }
+
+    @Test
+    void watchdog() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Listener<TestEvent> slow = new LambdaListener<>(TestEvent.class, e -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        eventSystem.register(slow);
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+        }));
+        eventSystem.enableInstrumentation(1);
+
+        List<Listener<?>> reported = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch quarantined = new CountDownLatch(1);
+        eventSystem.startWatchdog(20, TimeUnit.MILLISECONDS, (listener, event, elapsedNanos, quarantine) -> {
+            assertTrue(elapsedNanos > TimeUnit.MILLISECONDS.toNanos(20));
+            reported.add(listener);
+            if (quarantine) {
+                quarantined.countDown();
+            }
+        }, 2);
+        assertThrows(IllegalStateException.class, () -> eventSystem.startWatchdog(1, TimeUnit.SECONDS, (l, e, n, q) -> {
+        }, 0));
+
+        eventSystem.postAsync(new TestEvent());
+        eventSystem.postAsync(new TestEvent());
+        assertTrue(quarantined.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertEquals(Arrays.asList(slow, slow), reported);
+        List<Listener<?>> remaining = new ArrayList<>();
+        eventSystem.scan(null, (eventClass, listener) -> remaining.add(listener));
+        assertEquals(1, remaining.size());
+        assertFalse(remaining.contains(slow));
+        eventSystem.shutDown();
+    }
+
+    @Test
+    void postAll() {
+        List<String> calls = new ArrayList<>();
+        List<List<TestEvent>> batches = new ArrayList<>();
+        TestEvent first = new TestEvent();
+        TestEvent second = new TestEvent();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> calls.add("high")));
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> e == second, e -> e.cancel()));
+        eventSystem.register(new BatchListener<TestEvent>() {
+            @Override
+            public void invokeAll(List<TestEvent> events) {
+                batches.add(new ArrayList<>(events));
+            }
+
+            @Override
+            public Class<? super TestEvent> getTarget() {
+                return TestEvent.class;
+            }
+
+            @Override
+            public boolean ignoresCanceled() {
+                return true;
+            }
+        });
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, e -> calls.add("low")));
+
+        eventSystem.postAll(Arrays.asList(first, second));
+        assertEquals(Arrays.asList("high", "high", "low", "low"), calls);
+        assertEquals(Collections.singletonList(Collections.singletonList(first)), batches);
+        assertTrue(second.isCanceled());
+
+        eventSystem.post(new TestEvent());
+        assertEquals(2, batches.size());
+        assertEquals(1, batches.get(1).size());
+    }
+
+    private static BatchListener<TestEvent> batchListener(List<List<TestEvent>> batches) {
+        return new BatchListener<TestEvent>() {
+            @Override
+            public void invokeAll(List<TestEvent> events) {
+                batches.add(new ArrayList<>(events));
+            }
+
+            @Override
+            public Class<? super TestEvent> getTarget() {
+                return TestEvent.class;
+            }
+        };
+    }
+
+    @Test
+    void postAllInstrumented() {
+        List<List<TestEvent>> batches = new ArrayList<>();
+        BatchListener<TestEvent> listener = batchListener(batches);
+        eventSystem.register(listener);
+        eventSystem.enableInstrumentation(1);
+
+        List<TestEvent> events = Arrays.asList(new TestEvent(), new TestEvent(), new TestEvent());
+        eventSystem.postAll(events);
+        assertEquals(Collections.singletonList(events), batches);
+
+        List<ListenerStatistics> scanned = new ArrayList<>();
+        eventSystem.scanStatistics((l, statistics) -> {
+            assertSame(listener, l);
+            scanned.add(statistics);
+        });
+        assertEquals(1, scanned.size());
+        assertEquals(1L, scanned.get(0).getInvocations());
+    }
+
+    @Test
+    void postAllMonitored() {
+        List<List<TestEvent>> batches = new ArrayList<>();
+        List<Object> invoked = new ArrayList<>();
+        BatchListener<TestEvent> listener = batchListener(batches);
+        eventSystem.register(listener);
+        eventSystem.setMonitor(new DispatchMonitor() {
+            @Override
+            public Object postStarted(Object event) {
+                return null;
+            }
+
+            @Override
+            public void postFinished(Object token, Object event, int listeners, boolean canceled) {
+            }
+
+            @Override
+            public boolean monitorsListeners() {
+                return true;
+            }
+
+            @Override
+            public Object listenerStarted(Listener<?> l, Object event) {
+                assertSame(listener, l);
+                invoked.add(event);
+                return null;
+            }
+        });
+
+        List<TestEvent> events = Arrays.asList(new TestEvent(), new TestEvent(), new TestEvent());
+        eventSystem.postAll(events);
+        assertEquals(Collections.singletonList(events), batches);
+        assertEquals(Collections.singletonList(events.get(0)), invoked);
+    }
+
+    @Test
+    void postAllTypeEvents() {
+        List<Class<?>> types = new ArrayList<>();
+        eventSystem.register(new LambdaListener<TestTypeEvent>(TestTypeEvent.class, e -> types.add(e.getType())) {
+            @Override
+            public boolean filterType(Class<?> eventClass) {
+                return eventClass == String.class;
+            }
+        });
+
+        eventSystem.postAll(new Object[]{new TestTypeEvent(String.class), new TestTypeEvent(Integer.class),
+                new TestEvent(), new TestTypeEvent(String.class)});
+        assertEquals(Arrays.asList(String.class, String.class), types);
+    }
+
+    @Test
+    void filterGroups() {
+        AtomicInteger tests = new AtomicInteger();
+        AtomicInteger invocations = new AtomicInteger();
+        TestEvent accepted = new TestEvent();
+        FilterGroup<TestEvent> group = new FilterGroup<>("accepted", e -> {
+            tests.incrementAndGet();
+            return e == accepted;
+        });
+        for (int i = 0; i < 5; i++) {
+            eventSystem.register(group.attach(new LambdaListener<>(TestEvent.class, e -> invocations.incrementAndGet())));
+        }
+        Listener<TestEvent> filtered = group.attach(new LambdaListener<>(TestEvent.class, e -> false,
+                e -> invocations.incrementAndGet()));
+        eventSystem.register(filtered);
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.LOW, e -> invocations.addAndGet(10)));
+
+        eventSystem.post(accepted);
+        assertEquals(1, tests.get());
+        assertEquals(15, invocations.get());
+
+        eventSystem.post(new TestEvent());
+        assertEquals(2, tests.get());
+        assertEquals(25, invocations.get());
+
+        eventSystem.postAll(Arrays.asList(accepted, new TestEvent(), accepted));
+        assertEquals(5, tests.get());
+        assertEquals(25 + 15 + 10 + 15, invocations.get());
+
+        eventSystem.deregister(filtered);
+        eventSystem.setCompiledDispatch(true);
+        eventSystem.post(accepted);
+        assertEquals(6, tests.get());
+        assertEquals(65 + 15, invocations.get());
+    }
+
+    @Test
+    void filterGroupEqualityAndBatches() {
+        TestEvent rejected = new TestEvent();
+        FilterGroup<TestEvent> group = new FilterGroup<>("accepted", e -> e != rejected);
+        List<List<TestEvent>> batches = new ArrayList<>();
+        BatchListener<TestEvent> listener = batchListener(batches);
+        Listener<TestEvent> attached = group.attach(listener);
+        assertTrue(attached instanceof BatchListener);
+        assertEquals(attached, group.attach(listener));
+        assertEquals(attached.hashCode(), group.attach(listener).hashCode());
+        assertFalse(attached.equals(new FilterGroup<TestEvent>("other", e -> true).attach(listener)));
+
+        eventSystem.register(attached);
+        TestEvent first = new TestEvent();
+        TestEvent second = new TestEvent();
+        eventSystem.postAll(Arrays.asList(first, rejected, second));
+        assertEquals(Collections.singletonList(Arrays.asList(first, second)), batches);
+
+        assertTrue(eventSystem.deregister(group.attach(listener)));
+        assertFalse(eventSystem.hasListeners(TestEvent.class));
+    }
+
+}
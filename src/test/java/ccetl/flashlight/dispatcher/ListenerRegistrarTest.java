@@ -0,0 +1,173 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.annotation.EventListener;
+import ccetl.flashlight.annotation.EventType;
+import ccetl.flashlight.annotation.ListenerPriority;
+import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.event.TypeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerRegistrarTest {
+
+    private EventSystem eventSystem;
+
+    static class TestEvent implements TypeEvent {
+        private final Class<?> type;
+
+        TestEvent(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        eventSystem = new EventSystem();
+    }
+
+    @Test
+    void registrarGenerated() {
+        assertFalse(Registrars.of(Provider.class) instanceof ReflectiveRegistrar);
+        assertTrue(Registrars.of(PrivateProvider.class) instanceof ReflectiveRegistrar);
+    }
+
+    @Test
+    void reflectiveRegistrarCached() {
+        assertSame(Registrars.of(PrivateProvider.class), Registrars.of(PrivateProvider.class));
+
+        PrivateProvider first = new PrivateProvider();
+        PrivateProvider second = new PrivateProvider();
+        eventSystem.register(first);
+        eventSystem.register(second);
+        eventSystem.deregister(first);
+        eventSystem.post(new TestEvent(String.class));
+        assertEquals(0, first.count);
+        assertEquals(1, second.count);
+    }
+
+    @Test
+    void registerWithRegistrar() {
+        Provider provider = new Provider();
+        eventSystem.register(provider);
+        eventSystem.post(new TestEvent(String.class));
+        assertEquals(Arrays.asList("string", "high", "normal"), provider.calls);
+
+        provider.calls.clear();
+        eventSystem.post(new TestEvent(Integer.class));
+        assertEquals(Arrays.asList("high", "normal"), provider.calls);
+    }
+
+    @Test
+    void deregisterWithRegistrar() {
+        Provider provider = new Provider();
+        eventSystem.register(provider);
+        eventSystem.deregister(provider);
+        assertFalse(eventSystem.hasListeners(TestEvent.class));
+    }
+
+    @Test
+    void deregisterMethodWithRegistrar() throws NoSuchMethodException {
+        Provider provider = new Provider();
+        eventSystem.register(provider);
+        assertTrue(eventSystem.deregister(Provider.class.getMethod("high", TestEvent.class), provider));
+
+        eventSystem.post(new TestEvent(Integer.class));
+        assertEquals(Arrays.asList("normal"), provider.calls);
+    }
+
+    @Test
+    void ignoreCanceled() {
+        CancelingProvider provider = new CancelingProvider();
+        PrivateCancelingProvider privateProvider = new PrivateCancelingProvider();
+        assertFalse(Registrars.of(CancelingProvider.class) instanceof ReflectiveRegistrar);
+        eventSystem.register(provider);
+        eventSystem.register(privateProvider);
+
+        assertTrue(eventSystem.post(new CancelableEvent()));
+        assertEquals(Arrays.asList("cancel", "monitor"), provider.calls);
+        assertEquals(0, privateProvider.count);
+    }
+
+    static class CancelableEvent extends Cancelable {
+    }
+
+    static class CancelingProvider {
+        final List<String> calls = new ArrayList<>();
+
+        @EventListener
+        @ListenerPriority(priority = DefaultPriorities.HIGH)
+        public void cancel(CancelableEvent event) {
+            calls.add("cancel");
+            event.cancel();
+        }
+
+        @EventListener(ignoreCanceled = true)
+        public void skipped(CancelableEvent event) {
+            calls.add("skipped");
+        }
+
+        @EventListener
+        @ListenerPriority(priority = DefaultPriorities.LOW)
+        public void monitor(CancelableEvent event) {
+            calls.add("monitor");
+        }
+    }
+
+    private static class PrivateCancelingProvider {
+        int count;
+
+        @EventListener(ignoreCanceled = true)
+        public void skipped(CancelableEvent event) {
+            count++;
+        }
+    }
+
+    static class Provider {
+        final List<String> calls = new ArrayList<>();
+
+        @EventListener
+        public void normal(TestEvent event) {
+            calls.add("normal");
+        }
+
+        @EventListener
+        @ListenerPriority(priority = DefaultPriorities.HIGH)
+        public void high(TestEvent event) {
+            calls.add("high");
+        }
+
+        @EventListener
+        @ListenerPriority(priority = DefaultPriorities.HIGHER)
+        @EventType(typeFilter = String.class)
+        public void string(TestEvent event) {
+            calls.add("string");
+        }
+
+        @EventListener
+        void notPublic(TestEvent event) {
+            calls.add("not public");
+        }
+    }
+
+    private static class PrivateProvider {
+        int count;
+
+        @EventListener
+        public void listener(TestEvent event) {
+            count++;
+        }
+    }
+
+}
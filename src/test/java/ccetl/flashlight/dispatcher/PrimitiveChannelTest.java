@@ -0,0 +1,83 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.listener.DoubleListener;
+import ccetl.flashlight.listener.IntListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimitiveChannelTest {
+
+    private static IntListener recording(List<String> calls, String name) {
+        return value -> {
+            calls.add(name + " " + value);
+            return false;
+        };
+    }
+
+    @Test
+    void priorityOrder() {
+        IntEventChannel channel = new IntEventChannel();
+        List<String> calls = new ArrayList<>();
+        channel.register(recording(calls, "normal"));
+        channel.register(recording(calls, "low"), DefaultPriorities.LOW);
+        channel.register(recording(calls, "high"), DefaultPriorities.HIGH);
+        channel.register(recording(calls, "normal2"));
+
+        assertFalse(channel.post(7));
+        assertEquals(Arrays.asList("high 7", "normal 7", "normal2 7", "low 7"), calls);
+    }
+
+    @Test
+    void cancel() {
+        LongEventChannel channel = new LongEventChannel();
+        AtomicLong received = new AtomicLong();
+        channel.register(value -> value > 10, DefaultPriorities.HIGH);
+        channel.register(value -> {
+            received.set(value);
+            return false;
+        });
+
+        assertTrue(channel.post(11));
+        assertEquals(0L, received.get());
+        assertFalse(channel.post(5));
+        assertEquals(5L, received.get());
+    }
+
+    @Test
+    void deregister() {
+        DoubleEventChannel channel = new DoubleEventChannel();
+        DoubleListener canceler = value -> true;
+        assertFalse(channel.hasListeners());
+        channel.register(canceler);
+        assertTrue(channel.post(1.5));
+
+        assertTrue(channel.deregister(canceler));
+        assertFalse(channel.deregister(canceler));
+        assertFalse(channel.hasListeners());
+        assertFalse(channel.post(1.5));
+    }
+
+    @Test
+    void getListeners() {
+        IntEventChannel channel = new IntEventChannel();
+        IntListener low = value -> false;
+        IntListener high = value -> false;
+        channel.register(low, DefaultPriorities.LOW);
+        channel.register(high, DefaultPriorities.HIGH);
+
+        IntListener[] listeners = channel.getListeners();
+        assertEquals(Arrays.asList(high, low), Arrays.asList(listeners));
+        listeners[0] = null;
+        assertEquals(2, channel.getListeners().length);
+    }
+
+}
@@ -0,0 +1,144 @@
+package ccetl.flashlight.dispatcher;
+
+import ccetl.flashlight.event.Cancelable;
+import ccetl.flashlight.event.DefaultPriorities;
+import ccetl.flashlight.event.PersistentCancelable;
+import ccetl.flashlight.listener.LambdaListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferChannelTest {
+
+    private EventSystem eventSystem;
+
+    private static class TestEvent extends PersistentCancelable {
+        private int value;
+    }
+
+    @BeforeEach
+    void setUp() {
+        eventSystem = new EventSystem();
+    }
+
+    @Test
+    void pollInSequence() {
+        List<Integer> values = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> values.add(e.value)));
+        RingBufferChannel<TestEvent> channel = new RingBufferChannel<>(eventSystem, 4, TestEvent::new);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                int value = round * 4 + i;
+                channel.publish(event -> event.value = value);
+            }
+            assertEquals(4, channel.poll());
+        }
+        assertEquals(0, channel.poll());
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, values);
+    }
+
+    @Test
+    void publishBatches() {
+        List<Integer> values = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> values.add(e.value)));
+        RingBufferChannel<TestEvent> channel = new RingBufferChannel<>(eventSystem, 4, TestEvent::new);
+
+        for (int round = 0; round < 3; round++) {
+            long high = channel.next(3);
+            for (long sequence = high - 2; sequence <= high; sequence++) {
+                channel.get(sequence).value = (int) sequence;
+            }
+            channel.publish(high - 2, high);
+            assertEquals(3, channel.poll());
+        }
+        assertThrows(IllegalArgumentException.class, () -> channel.next(5));
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, values);
+    }
+
+    @Test
+    void resetsCancellation() {
+        List<Boolean> canceledBefore = new ArrayList<>();
+        eventSystem.register(new LambdaListener<>(TestEvent.class, DefaultPriorities.HIGH, e -> canceledBefore.add(e.isCanceled())));
+        eventSystem.register(new LambdaListener<>(TestEvent.class, TestEvent::cancel));
+        RingBufferChannel<TestEvent> channel = new RingBufferChannel<>(eventSystem, 2, TestEvent::new, TestEvent::rescind);
+
+        for (int i = 0; i < 6; i++) {
+            long sequence = channel.next();
+            assertFalse(channel.get(sequence).isCanceled());
+            channel.publish(sequence);
+            channel.poll();
+        }
+        assertEquals(Collections.nCopies(6, false), canceledBefore);
+    }
+
+    @Test
+    void rescindsPersistentCancelables() {
+        eventSystem.register(new LambdaListener<>(TestEvent.class, TestEvent::cancel));
+        RingBufferChannel<TestEvent> channel = new RingBufferChannel<>(eventSystem, 1, TestEvent::new);
+
+        for (int i = 0; i < 3; i++) {
+            long sequence = channel.next();
+            assertFalse(channel.get(sequence).isCanceled());
+            channel.publish(sequence);
+            assertEquals(1, channel.poll());
+            assertTrue(channel.get(sequence).isCanceled());
+        }
+    }
+
+    @Test
+    void requiresResetForCancelables() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferChannel<>(eventSystem, 2, PlainEvent::new));
+        new RingBufferChannel<>(eventSystem, 2, PlainEvent::new, event -> {
+        });
+    }
+
+    private static class PlainEvent extends Cancelable {
+    }
+
+    @Test
+    void consumerThread() throws InterruptedException {
+        int events = 10_000;
+        AtomicInteger expected = new AtomicInteger();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(events);
+        eventSystem.register(new LambdaListener<>(TestEvent.class, e -> {
+            if (e.value != expected.getAndIncrement()) {
+                outOfOrder.incrementAndGet();
+            }
+            latch.countDown();
+        }));
+        RingBufferChannel<TestEvent> channel = new RingBufferChannel<>(eventSystem, 64, TestEvent::new).start();
+
+        for (int i = 0; i < events; i++) {
+            int value = i;
+            channel.publish(event -> event.value = value);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+        channel.shutDown();
+    }
+
+}
@@ -0,0 +1,25 @@
+package ccetl.flashlight.listener;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilterGroupTest {
+
+    @Test
+    void attach_RejectsGroupedListener() {
+        FilterGroup<String> inner = new FilterGroup<>("inner", e -> true);
+        FilterGroup<String> outer = new FilterGroup<>("outer", e -> true);
+        Listener<String> listener = new LambdaListener<>(String.class, e -> {
+        });
+
+        Listener<String> grouped = inner.attach(listener);
+        assertSame(inner, grouped.getFilterGroup());
+        assertEquals(grouped, inner.attach(listener));
+        assertThrows(IllegalArgumentException.class, () -> outer.attach(grouped));
+        assertThrows(IllegalArgumentException.class, () -> inner.attach(grouped));
+    }
+
+}
@@ -54,6 +54,39 @@ public class MethodListenerTest {
         assertTrue(object.latch.await(1, TimeUnit.SECONDS));
     }
 
+    @Test
+    void publicProvider() {
+        PublicListenerContainingClass object = new PublicListenerContainingClass();
+        eventSystem.register(object);
+        eventSystem.post(new PublicEvent());
+        assertEquals(1, object.counter.get());
+
+        eventSystem.deregister(object);
+        eventSystem.post(new PublicEvent());
+        assertEquals(1, object.counter.get());
+        assertFalse(eventSystem.hasListeners(PublicEvent.class));
+    }
+
+    @Test
+    void deregisterPrivateProvider() {
+        PriorityListenerContainingClassB object = new PriorityListenerContainingClassB();
+        eventSystem.register(object);
+        eventSystem.deregister(object);
+        assertFalse(eventSystem.hasListeners(TestEvent.class));
+    }
+
+    public static class PublicEvent {
+    }
+
+    public static class PublicListenerContainingClass {
+        public AtomicInteger counter = new AtomicInteger();
+
+        @EventListener
+        public void listener(PublicEvent event) {
+            counter.incrementAndGet();
+        }
+    }
+
     private static class PriorityListenerContainingClassA {
         public AtomicInteger counter = new AtomicInteger();
         public CountDownLatch latch = new CountDownLatch(3);